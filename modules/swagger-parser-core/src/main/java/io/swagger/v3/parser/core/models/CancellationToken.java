@@ -0,0 +1,100 @@
+package io.swagger.v3.parser.core.models;
+
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Stops a parse that is no longer needed, set through {@link ParseOptions#setCancellationToken(CancellationToken)}.
+ *
+ * The parse checks the token between stages and inside its long running loops, and throws a
+ * {@link ParseCancelledException} once it was cancelled or its deadline passed. Remote reads in progress are
+ * disconnected when the token is cancelled, and time out no later than the deadline.
+ */
+public class CancellationToken {
+
+    private final boolean hasDeadline;
+    private final long deadlineNanos;
+    private final Set<Runnable> listeners = new CopyOnWriteArraySet<>();
+    private volatile boolean cancelled;
+
+    public CancellationToken() {
+        this.hasDeadline = false;
+        this.deadlineNanos = 0;
+    }
+
+    private CancellationToken(long deadlineNanos) {
+        this.hasDeadline = true;
+        this.deadlineNanos = deadlineNanos;
+    }
+
+    /**
+     * A token that can be cancelled, and that expires once the timeout has passed.
+     */
+    public static CancellationToken withTimeout(long timeout, TimeUnit unit) {
+        return new CancellationToken(System.nanoTime() + unit.toNanos(timeout));
+    }
+
+    /**
+     * Cancels the parse, and disconnects any remote read it is blocked in.
+     */
+    public void cancel() {
+        if (cancelled) {
+            return;
+        }
+        cancelled = true;
+        for (Runnable listener : listeners) {
+            try {
+                listener.run();
+            } catch (RuntimeException e) {
+                // a listener failing to release its resource must not keep the others from running
+            }
+        }
+    }
+
+    public boolean isCancelled() {
+        return cancelled || isExpired();
+    }
+
+    private boolean isExpired() {
+        return hasDeadline && System.nanoTime() - deadlineNanos >= 0;
+    }
+
+    /**
+     * The milliseconds left until the deadline, 0 once it passed, or {@code Long.MAX_VALUE} if there is none.
+     */
+    public long getRemainingMillis() {
+        if (!hasDeadline) {
+            return Long.MAX_VALUE;
+        }
+        return Math.max(0, TimeUnit.NANOSECONDS.toMillis(deadlineNanos - System.nanoTime()));
+    }
+
+    /**
+     * Throws a {@link ParseCancelledException} if the token was cancelled or its deadline passed. A passed
+     * deadline cancels the token, so reads blocked on other threads are disconnected too.
+     */
+    public void throwIfCancelled() {
+        if (cancelled) {
+            throw new ParseCancelledException("parse cancelled");
+        }
+        if (isExpired()) {
+            cancel();
+            throw new ParseCancelledException("parse deadline exceeded");
+        }
+    }
+
+    /**
+     * Runs the listener when the token gets cancelled, or right away if it already was.
+     */
+    public void addListener(Runnable listener) {
+        listeners.add(listener);
+        if (cancelled) {
+            listener.run();
+        }
+    }
+
+    public void removeListener(Runnable listener) {
+        listeners.remove(listener);
+    }
+}
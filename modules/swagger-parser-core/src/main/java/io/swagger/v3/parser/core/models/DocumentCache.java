@@ -0,0 +1,229 @@
+package io.swagger.v3.parser.core.models;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A bounded cache of referenced documents that can be shared by any number of parses, and threads, through
+ * {@link ParseOptions#setDocumentCache(DocumentCache)}.
+ *
+ * Entries are keyed by the normalized location of a document plus a fingerprint of the authorization values
+ * it was read with. Documents with identical contents are stored once, however many locations they were
+ * read from. The cache is bounded by the estimated size of the contents it retains and evicts the least
+ * recently used locations first; entries also expire after a fixed time to live.
+ */
+public class DocumentCache {
+
+    public static final long DEFAULT_MAX_WEIGHT = 64L * 1024 * 1024;
+
+    // the parsed form of a document is estimated at a multiple of its raw size
+    private static final int PARSED_WEIGHT_FACTOR = 3;
+
+    private final long maxWeight;
+    private final long timeToLiveMillis;
+
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private final Map<String, Content> contents = new HashMap<>();
+    private long weight;
+    private long hits;
+    private long misses;
+    private long evictions;
+
+    public DocumentCache() {
+        this(DEFAULT_MAX_WEIGHT, 0);
+    }
+
+    /**
+     * @param maxWeight        the estimated number of bytes the cache may retain
+     * @param timeToLiveMillis how long an entry is served after it was added, or 0 for no expiry
+     */
+    public DocumentCache(long maxWeight, long timeToLiveMillis) {
+        this.maxWeight = maxWeight;
+        this.timeToLiveMillis = timeToLiveMillis;
+    }
+
+    /**
+     * Returns the contents cached for the location, or null (and counts a miss) if there are none.
+     */
+    public synchronized String get(String location, List<AuthorizationValue> auths) {
+        Entry entry = lookup(location, auths);
+        if (entry == null) {
+            misses++;
+            return null;
+        }
+        hits++;
+        return entry.content.contents;
+    }
+
+    /**
+     * Caches the contents read from the location and returns the instance the cache retains, which is shared
+     * with any other location that had the same contents.
+     */
+    public synchronized String put(String location, List<AuthorizationValue> auths, String documentContents) {
+        if (documentContents == null) {
+            return null;
+        }
+        String key = key(location, auths);
+        Entry previous = entries.remove(key);
+        if (previous != null) {
+            release(previous.content);
+        }
+        Content content = contents.get(documentContents);
+        if (content == null) {
+            content = new Content(documentContents);
+            contents.put(documentContents, content);
+            weight += content.weight();
+        }
+        content.references++;
+        entries.put(key, new Entry(content, timeToLiveMillis > 0 ? System.currentTimeMillis() + timeToLiveMillis : Long.MAX_VALUE));
+        evict();
+        return content.contents;
+    }
+
+    /**
+     * Returns the parsed form attached to the cached contents of the location, if any. Parsed forms are shared
+     * between parses and must be treated as read only.
+     */
+    public synchronized Object getParsed(String location, List<AuthorizationValue> auths) {
+        Entry entry = lookup(location, auths);
+        return entry != null ? entry.content.parsed : null;
+    }
+
+    /**
+     * Attaches a parsed form to the cached contents of the location; ignored if the location is not cached.
+     */
+    public synchronized void putParsed(String location, List<AuthorizationValue> auths, Object parsed) {
+        Entry entry = lookup(location, auths);
+        if (entry == null || entry.content.parsed != null) {
+            return;
+        }
+        weight -= entry.content.weight();
+        entry.content.parsed = parsed;
+        weight += entry.content.weight();
+        evict();
+    }
+
+    public synchronized void clear() {
+        entries.clear();
+        contents.clear();
+        weight = 0;
+    }
+
+    public synchronized long getHitCount() {
+        return hits;
+    }
+
+    public synchronized long getMissCount() {
+        return misses;
+    }
+
+    public synchronized long getEvictionCount() {
+        return evictions;
+    }
+
+    /**
+     * The number of cached locations.
+     */
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    /**
+     * The estimated number of bytes currently retained.
+     */
+    public synchronized long getWeight() {
+        return weight;
+    }
+
+    public long getMaxWeight() {
+        return maxWeight;
+    }
+
+    private Entry lookup(String location, List<AuthorizationValue> auths) {
+        String key = key(location, auths);
+        Entry entry = entries.get(key);
+        if (entry != null && entry.expiresAt < System.currentTimeMillis()) {
+            entries.remove(key);
+            release(entry.content);
+            entry = null;
+        }
+        return entry;
+    }
+
+    private void evict() {
+        Iterator<Entry> iterator = entries.values().iterator();
+        while (weight > maxWeight && iterator.hasNext()) {
+            Entry eldest = iterator.next();
+            iterator.remove();
+            release(eldest.content);
+            evictions++;
+        }
+    }
+
+    private void release(Content content) {
+        if (--content.references == 0) {
+            contents.remove(content.contents);
+            weight -= content.weight();
+        }
+    }
+
+    private static String key(String location, List<AuthorizationValue> auths) {
+        if (auths == null || auths.isEmpty()) {
+            return location;
+        }
+        // only a digest of the credentials ends up in the key
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            for (AuthorizationValue auth : auths) {
+                update(digest, auth.getKeyName());
+                update(digest, auth.getType());
+                update(digest, auth.getValue());
+            }
+            StringBuilder key = new StringBuilder(location).append('#');
+            for (byte b : digest.digest()) {
+                key.append(Character.forDigit((b >> 4) & 0xf, 16)).append(Character.forDigit(b & 0xf, 16));
+            }
+            return key.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static void update(MessageDigest digest, String value) {
+        if (value != null) {
+            digest.update(value.getBytes(StandardCharsets.UTF_8));
+        }
+        digest.update((byte) 0);
+    }
+
+    private static final class Entry {
+        private final Content content;
+        private final long expiresAt;
+
+        Entry(Content content, long expiresAt) {
+            this.content = content;
+            this.expiresAt = expiresAt;
+        }
+    }
+
+    private static final class Content {
+        private final String contents;
+        private Object parsed;
+        private int references;
+
+        Content(String contents) {
+            this.contents = contents;
+        }
+
+        long weight() {
+            long raw = 2L * contents.length();
+            return parsed != null ? raw * (1 + PARSED_WEIGHT_FACTOR) : raw;
+        }
+    }
+}
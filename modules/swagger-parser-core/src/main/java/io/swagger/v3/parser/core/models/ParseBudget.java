@@ -0,0 +1,114 @@
+package io.swagger.v3.parser.core.models;
+
+/**
+ * Limits on the work a single parse may do, set through {@link ParseOptions#setBudget(ParseBudget)}. A limit of
+ * 0 means no limit. A parse that exceeds any of them stops with a {@link ParseBudgetExceededException}, which is
+ * reported as a message of the parse result, and returns no model.
+ */
+public class ParseBudget {
+
+    public enum Limit {
+        INPUT_BYTES("maxInputBytes"),
+        NODE_COUNT("maxNodeCount"),
+        NESTING_DEPTH("maxNestingDepth"),
+        EXTERNAL_DOCUMENTS("maxExternalDocuments"),
+        EXTERNAL_BYTES("maxExternalBytes"),
+        RESOLVED_EXPANSION("maxResolvedExpansion");
+
+        private final String property;
+
+        Limit(String property) {
+            this.property = property;
+        }
+
+        /**
+         * The name of the {@link ParseBudget} property holding this limit.
+         */
+        public String getProperty() {
+            return property;
+        }
+    }
+
+    private long maxInputBytes;
+    private long maxNodeCount;
+    private int maxNestingDepth;
+    private int maxExternalDocuments;
+    private long maxExternalBytes;
+    private long maxResolvedExpansion;
+
+    public long getMaxInputBytes() {
+        return maxInputBytes;
+    }
+
+    /**
+     * The size in bytes of the document itself and of each external document it references.
+     */
+    public void setMaxInputBytes(long maxInputBytes) {
+        this.maxInputBytes = maxInputBytes;
+    }
+
+    public long getMaxNodeCount() {
+        return maxNodeCount;
+    }
+
+    /**
+     * The number of JSON/YAML nodes (objects, arrays and scalar values) of the document.
+     */
+    public void setMaxNodeCount(long maxNodeCount) {
+        this.maxNodeCount = maxNodeCount;
+    }
+
+    public int getMaxNestingDepth() {
+        return maxNestingDepth;
+    }
+
+    /**
+     * How deeply objects and arrays of the document may be nested.
+     */
+    public void setMaxNestingDepth(int maxNestingDepth) {
+        this.maxNestingDepth = maxNestingDepth;
+    }
+
+    public int getMaxExternalDocuments() {
+        return maxExternalDocuments;
+    }
+
+    /**
+     * The number of external documents read while resolving refs.
+     */
+    public void setMaxExternalDocuments(int maxExternalDocuments) {
+        this.maxExternalDocuments = maxExternalDocuments;
+    }
+
+    public long getMaxExternalBytes() {
+        return maxExternalBytes;
+    }
+
+    /**
+     * The total size in bytes of the external documents read while resolving refs.
+     */
+    public void setMaxExternalBytes(long maxExternalBytes) {
+        this.maxExternalBytes = maxExternalBytes;
+    }
+
+    public long getMaxResolvedExpansion() {
+        return maxResolvedExpansion;
+    }
+
+    /**
+     * The number of schemas visited while fully resolving the model, counting a schema each time a ref to it
+     * is expanded.
+     */
+    public void setMaxResolvedExpansion(long maxResolvedExpansion) {
+        this.maxResolvedExpansion = maxResolvedExpansion;
+    }
+
+    /**
+     * Throws if the given value is over the limit, if any.
+     */
+    public static void check(Limit limit, long max, long value, String location) {
+        if (max > 0 && value > max) {
+            throw new ParseBudgetExceededException(limit, max, value, location);
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package io.swagger.v3.parser.core.models;
+
+/**
+ * Thrown when a parse exceeds one of the limits of its {@link ParseBudget}.
+ */
+public class ParseBudgetExceededException extends RuntimeException {
+
+    private final ParseBudget.Limit limit;
+    private final long max;
+    private final long value;
+    private final String location;
+
+    public ParseBudgetExceededException(ParseBudget.Limit limit, long max, long value, String location) {
+        super("parse budget exceeded: " + limit.getProperty() + " is " + max + " but reached " + value
+                + (location != null ? " reading `" + location + "`" : ""));
+        this.limit = limit;
+        this.max = max;
+        this.value = value;
+        this.location = location;
+    }
+
+    public ParseBudget.Limit getLimit() {
+        return limit;
+    }
+
+    /**
+     * The configured limit.
+     */
+    public long getMax() {
+        return max;
+    }
+
+    /**
+     * The value that went over the limit; counting stops there, so it may be lower than the full amount.
+     */
+    public long getValue() {
+        return value;
+    }
+
+    /**
+     * The document being read when the limit was hit, if known.
+     */
+    public String getLocation() {
+        return location;
+    }
+}
@@ -0,0 +1,11 @@
+package io.swagger.v3.parser.core.models;
+
+/**
+ * Thrown from a parse once its {@link CancellationToken} was cancelled or its deadline passed.
+ */
+public class ParseCancelledException extends RuntimeException {
+
+    public ParseCancelledException(String message) {
+        super(message);
+    }
+}
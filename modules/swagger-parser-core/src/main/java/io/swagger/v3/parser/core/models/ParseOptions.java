@@ -1,10 +1,19 @@
 package io.swagger.v3.parser.core.models;
 
+import java.util.concurrent.ForkJoinPool;
+
 public class ParseOptions {
     private boolean resolve;
     private boolean resolveCombinators = true;
     private boolean resolveFully;
     private boolean flatten;
+    private boolean validateOnly;
+    private DocumentCache documentCache;
+    private int prefetchThreads;
+    private long resolverMemoryBudget;
+    private ParseBudget budget;
+    private CancellationToken cancellationToken;
+    private ForkJoinPool resolveFullyPool;
 
     public boolean isResolve() {
         return resolve;
@@ -33,4 +42,88 @@ public class ParseOptions {
     public boolean isFlatten() { return flatten; }
 
     public void setFlatten(boolean flatten) { this.flatten = flatten; }
+
+    public boolean isValidateOnly() {
+        return validateOnly;
+    }
+
+    /**
+     * If true, the document is only validated: messages are collected while streaming through it and
+     * no model is returned.
+     */
+    public void setValidateOnly(boolean validateOnly) {
+        this.validateOnly = validateOnly;
+    }
+
+    public DocumentCache getDocumentCache() {
+        return documentCache;
+    }
+
+    /**
+     * If set, referenced documents are looked up in and added to this cache, which can be shared by many
+     * parses to avoid reading and decoding the same documents again.
+     */
+    public void setDocumentCache(DocumentCache documentCache) {
+        this.documentCache = documentCache;
+    }
+
+    public int getPrefetchThreads() {
+        return prefetchThreads;
+    }
+
+    /**
+     * If greater than 0, all external documents referenced directly or transitively are discovered and read
+     * with this many threads before resolution starts, instead of one at a time as they are met.
+     */
+    public void setPrefetchThreads(int prefetchThreads) {
+        this.prefetchThreads = prefetchThreads;
+    }
+
+    public long getResolverMemoryBudget() {
+        return resolverMemoryBudget;
+    }
+
+    /**
+     * If greater than 0, the number of bytes of raw external documents kept while resolving. Documents past
+     * the budget are dropped once parsed, and read again if they are needed later.
+     */
+    public void setResolverMemoryBudget(long resolverMemoryBudget) {
+        this.resolverMemoryBudget = resolverMemoryBudget;
+    }
+
+    public ParseBudget getBudget() {
+        return budget;
+    }
+
+    /**
+     * If set, the parse stops with a message instead of a model as soon as it goes over any of the limits
+     * of the budget.
+     */
+    public void setBudget(ParseBudget budget) {
+        this.budget = budget;
+    }
+
+    public CancellationToken getCancellationToken() {
+        return cancellationToken;
+    }
+
+    /**
+     * If set, the parse stops with a message instead of a model once the token is cancelled or its deadline
+     * passes.
+     */
+    public void setCancellationToken(CancellationToken cancellationToken) {
+        this.cancellationToken = cancellationToken;
+    }
+
+    public ForkJoinPool getResolveFullyPool() {
+        return resolveFullyPool;
+    }
+
+    /**
+     * If set, the paths of the model are fully resolved in parallel on this pool. The model is the same as
+     * when resolving them one at a time.
+     */
+    public void setResolveFullyPool(ForkJoinPool resolveFullyPool) {
+        this.resolveFullyPool = resolveFullyPool;
+    }
 }
@@ -1,24 +1,34 @@
 package io.swagger.v3.parser;
 
 
+import com.fasterxml.jackson.databind.JsonNode;
+import io.swagger.v3.core.util.Json;
 import io.swagger.v3.oas.models.OpenAPI;
-import io.swagger.v3.oas.models.Operation;
 import io.swagger.v3.oas.models.PathItem;
 import io.swagger.v3.parser.core.models.AuthorizationValue;
+import io.swagger.v3.parser.core.models.CancellationToken;
+import io.swagger.v3.parser.core.models.DocumentCache;
+import io.swagger.v3.parser.core.models.ParseBudget;
+import io.swagger.v3.parser.core.models.ParseOptions;
 import io.swagger.v3.parser.processors.ComponentsProcessor;
-import io.swagger.v3.parser.processors.OperationProcessor;
 import io.swagger.v3.parser.processors.PathsProcessor;
+import io.swagger.v3.parser.util.RefGraph;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 public class OpenAPIResolver {
+    static Logger LOGGER = LoggerFactory.getLogger(OpenAPIResolver.class);
 
     private final OpenAPI openApi;
     private final ResolverCache cache;
     private final ComponentsProcessor componentsProcessor;
     private final PathsProcessor pathProcessor;
-    private final OperationProcessor operationsProcessor;
     private Settings settings = new Settings();
+    private RefGraph refGraph;
 
     public OpenAPIResolver(OpenAPI openApi) {
         this(openApi, null, null, null);
@@ -35,10 +45,18 @@ public class OpenAPIResolver {
     public OpenAPIResolver(OpenAPI openApi, List<AuthorizationValue> auths, String parentFileLocation, Settings settings) {
         this.openApi = openApi;
         this.settings = settings != null ? settings : new Settings();
-        this.cache = new ResolverCache(openApi, auths, parentFileLocation);
-        componentsProcessor = new ComponentsProcessor(openApi,this.cache);
+        this.cache = new ResolverCache(openApi, auths, parentFileLocation, this.settings.documentCache());
+        if (this.settings.memoryBudget() > 0) {
+            this.cache.setMemoryBudget(this.settings.memoryBudget());
+        }
+        if (this.settings.budget() != null) {
+            this.cache.setBudget(this.settings.budget());
+        }
+        if (this.settings.cancellationToken() != null) {
+            this.cache.setCancellationToken(this.settings.cancellationToken());
+        }
+        componentsProcessor = new ComponentsProcessor(openApi, this.cache, this.settings);
         pathProcessor = new PathsProcessor(cache, openApi,this.settings);
-        operationsProcessor = new OperationProcessor(cache, openApi);
     }
 
     public OpenAPI resolve() {
@@ -46,26 +64,106 @@ public class OpenAPIResolver {
             return null;
         }
 
+        checkCancelled();
+        if (settings.prefetchThreads() > 0) {
+            prefetchExternalRefs();
+            checkCancelled();
+        }
+
+        // processing the paths processes their operations too, so operations are not walked a second time
         pathProcessor.processPaths();
+        checkCancelled();
         componentsProcessor.processComponents();
 
-        if(openApi.getPaths() != null) {
-            for(String pathname : openApi.getPaths().keySet()) {
-                PathItem pathItem = openApi.getPaths().get(pathname);
-                if(pathItem.readOperations() != null) {
-                    for(Operation operation : pathItem.readOperations()) {
-                        operationsProcessor.processOperation(operation);
-                    }
-                }
-            }
+        return openApi;
+    }
+
+    private void checkCancelled() {
+        if (settings.cancellationToken() != null) {
+            settings.cancellationToken().throwIfCancelled();
         }
+    }
 
-        return openApi;
+    /**
+     * Resolves a single path item against this resolver's cache, without touching the other paths.
+     * Used to resolve path items one at a time as they are deserialized.
+     */
+    public PathItem resolvePath(String pathname, PathItem pathItem) {
+        return pathProcessor.processPath(pathname, pathItem);
+    }
+
+    private void prefetchExternalRefs() {
+        final JsonNode root;
+        try {
+            root = Json.mapper().convertValue(openApi, JsonNode.class);
+        } catch (RuntimeException e) {
+            LOGGER.debug("Unable to scan for external refs, skipping prefetch", e);
+            return;
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(settings.prefetchThreads(), runnable -> {
+            Thread thread = new Thread(runnable, "openapi-prefetch");
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            cache.prefetchExternalRefs(root, executor);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * What the deserializer reported about the components loaded from other documents while resolving.
+     */
+    public List<String> getMessages() {
+        return cache.getMessages();
+    }
+
+    /**
+     * The graph of references between the path items and components of the model, built on first use. Call
+     * it after {@link #resolve()} to get the graph of the resolved model.
+     *
+     * Resolution builds the same graph before processing the components, and processes them in its order.
+     * Refs inside imported documents are not part of it, so cycles through those are still caught by the
+     * external ref processor.
+     */
+    public RefGraph getRefGraph() {
+        if (refGraph == null && openApi != null) {
+            refGraph = RefGraph.build(openApi);
+        }
+        return refGraph;
+    }
+
+    public void resolveComponents() {
+        if (openApi == null) {
+            return;
+        }
+        componentsProcessor.processComponents();
     }
 
     public static class Settings {
 
         private boolean addParametersToEachOperation = true;
+        private DocumentCache documentCache;
+        private int prefetchThreads;
+        private long memoryBudget;
+        private ParseBudget budget;
+        private CancellationToken cancellationToken;
+
+        /**
+         * The settings matching the resolution related parse options
+         */
+        public static Settings fromParseOptions(ParseOptions options) {
+            Settings settings = new Settings();
+            if (options != null) {
+                settings.documentCache(options.getDocumentCache());
+                settings.prefetchThreads(options.getPrefetchThreads());
+                settings.memoryBudget(options.getResolverMemoryBudget());
+                settings.budget(options.getBudget());
+                settings.cancellationToken(options.getCancellationToken());
+            }
+            return settings;
+        }
 
         /**
          * If true, resource parameters are added to each operation
@@ -82,6 +180,83 @@ public class OpenAPIResolver {
             return this;
         }
 
+        /**
+         * The number of threads external documents are read with before resolution starts, or 0 to read them
+         * one at a time as they are met
+         */
+        public int prefetchThreads() {
+            return this.prefetchThreads;
+        }
+
+        /**
+         * The number of threads external documents are read with before resolution starts, or 0 to read them
+         * one at a time as they are met
+         */
+        public Settings prefetchThreads(final int prefetchThreads) {
+            this.prefetchThreads = prefetchThreads;
+            return this;
+        }
+
+        /**
+         * The number of bytes of raw external documents the resolver keeps, or 0 for no limit
+         */
+        public long memoryBudget() {
+            return this.memoryBudget;
+        }
+
+        /**
+         * The number of bytes of raw external documents the resolver keeps, or 0 for no limit
+         */
+        public Settings memoryBudget(final long memoryBudget) {
+            this.memoryBudget = memoryBudget;
+            return this;
+        }
+
+        /**
+         * The limits on the external documents the resolver reads, or null for no limits
+         */
+        public ParseBudget budget() {
+            return this.budget;
+        }
+
+        /**
+         * The limits on the external documents the resolver reads, or null for no limits
+         */
+        public Settings budget(final ParseBudget budget) {
+            this.budget = budget;
+            return this;
+        }
+
+        /**
+         * The token that stops the resolution once cancelled or expired, or null
+         */
+        public CancellationToken cancellationToken() {
+            return this.cancellationToken;
+        }
+
+        /**
+         * The token that stops the resolution once cancelled or expired, or null
+         */
+        public Settings cancellationToken(final CancellationToken cancellationToken) {
+            this.cancellationToken = cancellationToken;
+            return this;
+        }
+
+        /**
+         * The cache of external documents shared with other resolutions, or null
+         */
+        public DocumentCache documentCache() {
+            return this.documentCache;
+        }
+
+        /**
+         * The cache of external documents shared with other resolutions, or null
+         */
+        public Settings documentCache(final DocumentCache documentCache) {
+            this.documentCache = documentCache;
+            return this;
+        }
+
 
     }
 }
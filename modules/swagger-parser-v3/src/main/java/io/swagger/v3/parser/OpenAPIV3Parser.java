@@ -1,15 +1,22 @@
 package io.swagger.v3.parser;
 
+import com.fasterxml.jackson.core.JsonParser;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import io.swagger.v3.oas.models.OpenAPI;
 import io.swagger.v3.parser.core.extensions.SwaggerParserExtension;
 import io.swagger.v3.parser.core.models.AuthorizationValue;
+import io.swagger.v3.parser.core.models.CancellationToken;
+import io.swagger.v3.parser.core.models.ParseBudget;
+import io.swagger.v3.parser.core.models.ParseBudgetExceededException;
+import io.swagger.v3.parser.core.models.ParseCancelledException;
 import io.swagger.v3.parser.core.models.ParseOptions;
 import io.swagger.v3.parser.core.models.SwaggerParseResult;
 import io.swagger.v3.parser.util.ClasspathHelper;
+import io.swagger.v3.parser.util.DeserializationUtils;
 import io.swagger.v3.parser.util.InlineModelResolver;
 import io.swagger.v3.parser.util.OpenAPIDeserializer;
+import io.swagger.v3.parser.util.OpenAPIPublisher;
 import io.swagger.v3.parser.util.RemoteUrl;
 import io.swagger.v3.parser.util.ResolverFully;
 import org.apache.commons.io.FileUtils;
@@ -17,7 +24,11 @@ import javax.net.ssl.SSLHandshakeException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
 import java.net.URI;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
@@ -26,6 +37,10 @@ import java.util.Arrays;
 import java.util.Iterator;
 import java.util.List;
 import java.util.ServiceLoader;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
 
 public class OpenAPIV3Parser implements SwaggerParserExtension {
     private static ObjectMapper JSON_MAPPER, YAML_MAPPER;
@@ -37,27 +52,42 @@ public class OpenAPIV3Parser implements SwaggerParserExtension {
     }
     @Override
     public SwaggerParseResult readLocation(String url, List<AuthorizationValue> auth, ParseOptions options) {
+        if (options != null && options.isValidateOnly()) {
+            return validateLocation(url, auth, options);
+        }
         SwaggerParseResult result = new SwaggerParseResult();
         try {
             if (auth == null) {
                 auth = new ArrayList<>();
             }
-            result = readWithInfo(url,auth);
+            checkCancelled(options);
+            final CancellationToken previous = RemoteUrl.bindCancellationToken(options != null ? options.getCancellationToken() : null);
+            try {
+                result = readWithInfo(url, auth, options != null ? options.getBudget() : null);
+            } finally {
+                RemoteUrl.bindCancellationToken(previous);
+            }
+            checkCancelled(options);
 
             if (result.getOpenAPI() != null) {
                 String version = result.getOpenAPI().getOpenapi();
                 if (version != null && version.startsWith("3.0")) {
                     if (options != null) {
-                        OpenAPIResolver resolver = new OpenAPIResolver(result.getOpenAPI(), auth, url);
+                        OpenAPIResolver resolver = new OpenAPIResolver(result.getOpenAPI(), auth, url, OpenAPIResolver.Settings.fromParseOptions(options));
                         if (options.isResolve()) {
                             result.setOpenAPI(resolver.resolve());
                         }
+                        checkCancelled(options);
                         if (options.isResolveFully()) {
                             result.setOpenAPI(resolver.resolve());
-                            new ResolverFully(options.isResolveCombinators()).resolveFully(result.getOpenAPI());
+                        }
+                        if (options.isResolve() || options.isResolveFully()) {
+                            addMessages(result, resolver.getMessages());
+                        }
+                        if (options.isResolveFully()) {
+                            newResolverFully(options).resolveFully(result.getOpenAPI());
                         }else if (options.isFlatten()){
-                            InlineModelResolver inlineResolver = new InlineModelResolver();
-                            inlineResolver.flatten(result.getOpenAPI());
+                            newInlineModelResolver(options).flatten(result.getOpenAPI());
                         }
                     }
                 }
@@ -65,6 +95,10 @@ public class OpenAPIV3Parser implements SwaggerParserExtension {
 
         }
 
+        catch (ParseBudgetExceededException | ParseCancelledException e) {
+            result.setOpenAPI(null);
+            result.setMessages(Arrays.asList(e.getMessage()));
+        }
         catch (Exception e) {
             LOGGER.warn("Exception while reading:", e);
             result.setMessages(Arrays.asList(e.getMessage()));
@@ -115,31 +149,203 @@ public class OpenAPIV3Parser implements SwaggerParserExtension {
     }
     
     public SwaggerParseResult readWithInfo(String location, List<AuthorizationValue> auths) {
-        String data;
+        return readWithInfo(location, auths, null);
+    }
 
+    /**
+     * Like {@link #readWithInfo(String, List)}, but reports a document that goes over the size, node count or
+     * nesting depth limits of the budget instead of parsing it.
+     */
+    public SwaggerParseResult readWithInfo(String location, List<AuthorizationValue> auths, ParseBudget budget) {
         try {
             location = location.replaceAll("\\\\","/");
-            if (location.toLowerCase().startsWith("http")) {
-                data = RemoteUrl.urlToString(location, auths);
-            } else {
-                final String fileScheme = "file:";
-                Path path;
-                if (location.toLowerCase().startsWith(fileScheme)) {
-                    path = Paths.get(URI.create(location));
-                } else {
-                    path = Paths.get(location);
+            JsonNode rootNode = readTree(location, auths, budget);
+            return readWithInfo(location, rootNode);
+        }
+        catch (ParseBudgetExceededException | ParseCancelledException e) {
+            SwaggerParseResult output = new SwaggerParseResult();
+            output.setMessages(Arrays.asList(e.getMessage()));
+            return output;
+        }
+        catch (SSLHandshakeException e) {
+            SwaggerParseResult output = new SwaggerParseResult();
+            output.setMessages(Arrays.asList("unable to read location `" + location + "` due to a SSL configuration error.  " +
+                    "It is possible that the server SSL certificate is invalid, self-signed, or has an untrusted " +
+                    "Certificate Authority."));
+            return output;
+        }
+        catch (Exception e) {
+            LOGGER.warn("Exception while reading:", e);
+            SwaggerParseResult output = new SwaggerParseResult();
+            output.setMessages(Arrays.asList("unable to read location `" + location + "`"));
+            return output;
+        }
+    }
+
+    private static void addMessages(SwaggerParseResult result, List<String> messages) {
+        if (messages.isEmpty()) {
+            return;
+        }
+        List<String> all = result.getMessages() != null ? new ArrayList<>(result.getMessages()) : new ArrayList<>();
+        all.addAll(messages);
+        result.setMessages(all);
+    }
+
+    private static String readUrl(String location, List<AuthorizationValue> auths, long maxInputBytes) throws Exception {
+        // the plain read stays the one callers (and their mocks) see unless a limit is set
+        if (maxInputBytes > 0) {
+            return RemoteUrl.urlToString(location, auths, maxInputBytes);
+        }
+        return RemoteUrl.urlToString(location, auths);
+    }
+
+    private JsonNode readTree(String location, List<AuthorizationValue> auths, ParseBudget budget) throws Exception {
+        final long maxInputBytes = budget != null ? budget.getMaxInputBytes() : 0;
+        String data;
+        if (location.toLowerCase().startsWith("http")) {
+            data = readUrl(location, auths, maxInputBytes);
+        } else {
+            Path path = getPath(location);
+            if (Files.exists(path)) {
+                if (maxInputBytes > 0) {
+                    ParseBudget.check(ParseBudget.Limit.INPUT_BYTES, maxInputBytes, Files.size(path), location);
                 }
-                if (Files.exists(path)) {
-                    data = FileUtils.readFileToString(path.toFile(), "UTF-8");
-                } else {
-                    data = ClasspathHelper.loadFileFromClasspath(location);
+                data = FileUtils.readFileToString(path.toFile(), "UTF-8");
+            } else {
+                data = ClasspathHelper.loadFileFromClasspath(location);
+            }
+        }
+        LOGGER.debug("Loaded raw data: {}", data);
+        ObjectMapper mapper = getRightMapper(data);
+        checkBudget(data, mapper, budget, location);
+        JsonNode rootNode = mapper.readTree(data);
+        LOGGER.debug("Parsed rootNode: {}", rootNode);
+        return rootNode;
+    }
+
+    /**
+     * Throws if the document goes over the size, node count or nesting depth limits of the budget. Nodes and
+     * depth are counted while streaming through the document, so an oversized tree is never built.
+     */
+    private void checkBudget(String data, ObjectMapper mapper, ParseBudget budget, String location) throws IOException {
+        if (budget == null || data == null) {
+            return;
+        }
+        final long maxInputBytes = budget.getMaxInputBytes();
+        if (maxInputBytes > 0) {
+            // a char takes one to three bytes, so only encode when that decides it
+            long bytes = data.length() > maxInputBytes || 3L * data.length() <= maxInputBytes
+                    ? data.length() : data.getBytes(StandardCharsets.UTF_8).length;
+            ParseBudget.check(ParseBudget.Limit.INPUT_BYTES, maxInputBytes, bytes, location);
+        }
+        if (budget.getMaxNodeCount() <= 0 && budget.getMaxNestingDepth() <= 0) {
+            return;
+        }
+        try (JsonParser parser = mapper.getFactory().createParser(data)) {
+            DeserializationUtils.checkNodes(parser, budget, location);
+        }
+    }
+
+    private ResolverFully newResolverFully(ParseOptions options) {
+        ResolverFully resolverFully = new ResolverFully(options.isResolveCombinators());
+        if (options.getBudget() != null) {
+            resolverFully.setMaxExpansion(options.getBudget().getMaxResolvedExpansion());
+        }
+        resolverFully.setCancellationToken(options.getCancellationToken());
+        resolverFully.setForkJoinPool(options.getResolveFullyPool());
+        return resolverFully;
+    }
+
+    private InlineModelResolver newInlineModelResolver(ParseOptions options) {
+        InlineModelResolver inlineResolver = new InlineModelResolver();
+        inlineResolver.setCancellationToken(options.getCancellationToken());
+        return inlineResolver;
+    }
+
+    private static void checkCancelled(ParseOptions options) {
+        if (options != null && options.getCancellationToken() != null) {
+            options.getCancellationToken().throwIfCancelled();
+        }
+    }
+
+    /**
+     * Returns a publisher that emits each component and path item of the document at the given location
+     * as soon as it has been deserialized and its references resolved. Reading starts when a subscriber
+     * subscribes and runs on the given executor, or on a dedicated thread if the executor is null.
+     *
+     * Local files are streamed from disk, so the path items are never all in memory. Remote and classpath
+     * documents are downloaded once and kept as text while publishing, though not as a tree.
+     */
+    public OpenAPIPublisher publishLocation(String url, List<AuthorizationValue> auth, ParseOptions options, Executor executor) {
+        final String location = url.replaceAll("\\\\","/");
+        final List<AuthorizationValue> auths = auth != null ? auth : new ArrayList<>();
+        final ParseBudget budget = options != null ? options.getBudget() : null;
+        return new OpenAPIPublisher(parserSource(location, auths, budget), location, auths, options, executor);
+    }
+
+    /**
+     * Opens a new parser over the document on each call, checking the budget on the first one.
+     */
+    private Callable<JsonParser> parserSource(final String location, final List<AuthorizationValue> auths, final ParseBudget budget) {
+        final Path path = location.toLowerCase().startsWith("http") ? null : getPath(location);
+        if (path != null && Files.exists(path)) {
+            final AtomicBoolean checked = new AtomicBoolean();
+            return () -> {
+                if (budget != null && checked.compareAndSet(false, true)) {
+                    if (budget.getMaxInputBytes() > 0) {
+                        ParseBudget.check(ParseBudget.Limit.INPUT_BYTES, budget.getMaxInputBytes(), Files.size(path), location);
+                    }
+                    try (JsonParser parser = createParser(new BufferedInputStream(Files.newInputStream(path)))) {
+                        DeserializationUtils.checkNodes(parser, budget, location);
+                    }
                 }
+                return createParser(new BufferedInputStream(Files.newInputStream(path)));
+            };
+        }
+        final AtomicReference<String> contents = new AtomicReference<>();
+        return () -> {
+            String data = contents.get();
+            if (data == null) {
+                data = path != null ? ClasspathHelper.loadFileFromClasspath(location)
+                        : readUrl(location, auths, budget != null ? budget.getMaxInputBytes() : 0);
+                checkBudget(data, getRightMapper(data), budget, location);
+                contents.set(data);
+            }
+            return getRightMapper(data).getFactory().createParser(data);
+        };
+    }
+
+    public OpenAPIPublisher publishLocation(String url, List<AuthorizationValue> auth, ParseOptions options) {
+        return publishLocation(url, auth, options, null);
+    }
+
+    /**
+     * Validates the document at the given location without building a model. Local files are streamed,
+     * so memory stays bounded by the largest single path item or component rather than the whole document.
+     */
+    public SwaggerParseResult validateLocation(String location, List<AuthorizationValue> auths) {
+        return validateLocation(location, auths, null);
+    }
+
+    /**
+     * Like {@link #validateLocation(String, List)}, within the budget and the cancellation token of the options.
+     */
+    public SwaggerParseResult validateLocation(String location, List<AuthorizationValue> auths, ParseOptions options) {
+        try {
+            location = location.replaceAll("\\\\","/");
+            checkCancelled(options);
+            final CancellationToken previous = RemoteUrl.bindCancellationToken(options != null ? options.getCancellationToken() : null);
+            try (JsonParser parser = parserSource(location, auths, options != null ? options.getBudget() : null).call()) {
+                checkCancelled(options);
+                return new OpenAPIDeserializer().validate(parser, location);
+            } finally {
+                RemoteUrl.bindCancellationToken(previous);
             }
-            LOGGER.debug("Loaded raw data: {}", data);
-            ObjectMapper mapper = getRightMapper(data);
-            JsonNode rootNode = mapper.readTree(data);
-            LOGGER.debug("Parsed rootNode: {}", rootNode);
-            return readWithInfo(location, rootNode);
+        }
+        catch (ParseBudgetExceededException | ParseCancelledException e) {
+            SwaggerParseResult output = new SwaggerParseResult();
+            output.setMessages(Arrays.asList(e.getMessage()));
+            return output;
         }
         catch (SSLHandshakeException e) {
             SwaggerParseResult output = new SwaggerParseResult();
@@ -156,6 +362,40 @@ public class OpenAPIV3Parser implements SwaggerParserExtension {
         }
     }
 
+    public SwaggerParseResult validateContents(String swaggerAsString, String location) throws IOException {
+        ObjectMapper mapper = getRightMapper(swaggerAsString);
+        try (JsonParser parser = mapper.getFactory().createParser(swaggerAsString)) {
+            return new OpenAPIDeserializer().validate(parser, location);
+        }
+    }
+
+    /**
+     * A parser over the stream, from the right mapper for its contents. The stream must support mark.
+     */
+    private static JsonParser createParser(InputStream in) throws IOException {
+        // peek at the first non blank character to pick the right mapper, like getRightMapper does
+        final int readLimit = 8192;
+        in.mark(readLimit);
+        int c;
+        int read = 0;
+        do {
+            c = in.read();
+            read++;
+        } while (c != -1 && Character.isWhitespace(c) && read < readLimit);
+        in.reset();
+
+        ObjectMapper mapper = c == '{' ? JSON_MAPPER : YAML_MAPPER;
+        return mapper.getFactory().createParser(in);
+    }
+
+    private Path getPath(String location) {
+        final String fileScheme = "file:";
+        if (location.toLowerCase().startsWith(fileScheme)) {
+            return Paths.get(URI.create(location));
+        }
+        return Paths.get(location);
+    }
+
     @Override
     public SwaggerParseResult readContents(String swaggerAsString, List<AuthorizationValue> auth, ParseOptions options) {
         SwaggerParseResult result = new SwaggerParseResult();
@@ -166,27 +406,44 @@ public class OpenAPIV3Parser implements SwaggerParserExtension {
                 auth = new ArrayList<>();
             }
             try{
+                if(options != null && options.isValidateOnly()) {
+                    checkCancelled(options);
+                    checkBudget(swaggerAsString, mapper, options.getBudget(), null);
+                    return validateContents(swaggerAsString, null);
+                }
                 if(options != null) {
+                    checkCancelled(options);
+                    checkBudget(swaggerAsString, mapper, options.getBudget(), null);
                     if (options.isResolve()) {
                         OpenAPIDeserializer deserializer = new OpenAPIDeserializer();
                         JsonNode rootNode = mapper.readTree(swaggerAsString.getBytes());
                         result = deserializer.deserialize(rootNode);
-                        OpenAPIResolver resolver = new OpenAPIResolver(result.getOpenAPI(), auth, null);
+                        checkCancelled(options);
+                        OpenAPIResolver resolver = new OpenAPIResolver(result.getOpenAPI(), auth, null, OpenAPIResolver.Settings.fromParseOptions(options));
                         result.setOpenAPI(resolver.resolve());
+                        addMessages(result, resolver.getMessages());
                     }else{
                         JsonNode rootNode = mapper.readTree(swaggerAsString.getBytes());
                         result = new OpenAPIDeserializer().deserialize(rootNode);
                     }
+                    checkCancelled(options);
                     if (options.isResolveFully()) {
-                        result.setOpenAPI(new OpenAPIResolver(result.getOpenAPI(), auth, null).resolve());
-                        new ResolverFully(options.isResolveCombinators()).resolveFully(result.getOpenAPI());
+                        OpenAPIResolver resolver = new OpenAPIResolver(result.getOpenAPI(), auth, null, OpenAPIResolver.Settings.fromParseOptions(options));
+                        result.setOpenAPI(resolver.resolve());
+                        if (!options.isResolve()) {
+                            addMessages(result, resolver.getMessages());
+                        }
+                        newResolverFully(options).resolveFully(result.getOpenAPI());
                     } else if (options.isFlatten()) {
-                        new InlineModelResolver().flatten(result.getOpenAPI());
+                        newInlineModelResolver(options).flatten(result.getOpenAPI());
                     }
                 }else{
                     JsonNode rootNode = mapper.readTree(swaggerAsString.getBytes());
                     result = new OpenAPIDeserializer().deserialize(rootNode);
                 }
+            } catch (ParseBudgetExceededException | ParseCancelledException e) {
+                result.setOpenAPI(null);
+                result.setMessages(Arrays.asList(e.getMessage()));
             } catch (Exception e) {
                 result.setMessages(Arrays.asList(e.getMessage()));
             }
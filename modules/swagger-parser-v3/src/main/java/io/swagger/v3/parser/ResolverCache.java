@@ -2,30 +2,69 @@ package io.swagger.v3.parser;
 
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.node.ObjectNode;
+import io.swagger.v3.oas.models.Components;
+import io.swagger.v3.core.util.Json;
 import io.swagger.v3.oas.models.OpenAPI;
+import io.swagger.v3.oas.models.examples.Example;
+import io.swagger.v3.oas.models.headers.Header;
+import io.swagger.v3.oas.models.media.ArraySchema;
+import io.swagger.v3.oas.models.media.ComposedSchema;
+import io.swagger.v3.oas.models.media.Content;
+import io.swagger.v3.oas.models.media.MediaType;
 import io.swagger.v3.oas.models.media.Schema;
+import io.swagger.v3.oas.models.parameters.Parameter;
+import io.swagger.v3.oas.models.parameters.RequestBody;
 import io.swagger.v3.oas.models.responses.ApiResponse;
 import io.swagger.v3.parser.core.models.AuthorizationValue;
+import io.swagger.v3.parser.core.models.CancellationToken;
+import io.swagger.v3.parser.core.models.DocumentCache;
+import io.swagger.v3.parser.core.models.ParseBudget;
+import io.swagger.v3.parser.core.models.ParseBudgetExceededException;
+import io.swagger.v3.parser.core.models.ParseCancelledException;
+import io.swagger.v3.parser.models.Ref;
 import io.swagger.v3.parser.models.RefFormat;
 import io.swagger.v3.parser.models.RefType;
+import io.swagger.v3.parser.processors.ExternalRefProcessor;
 import io.swagger.v3.parser.util.DeserializationUtils;
 import io.swagger.v3.parser.util.PathUtils;
+import io.swagger.v3.parser.util.RemoteUrl;
 import io.swagger.v3.parser.util.RefUtils;
 import io.swagger.v3.parser.util.OpenAPIDeserializer;
 import org.apache.commons.lang3.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import java.io.File;
 import java.io.UnsupportedEncodingException;
+import java.lang.ref.SoftReference;
 import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.InvalidPathException;
 import java.nio.file.Path;
+import java.util.AbstractMap;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.Deque;
 import java.util.HashMap;
-import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Phaser;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
 
 /**
  * A class that caches values that have been loaded so we don't have to repeat
@@ -36,36 +75,66 @@ import java.util.regex.Pattern;
  * 4) de-serializing json strings into objects
  */
 public class ResolverCache {
-
-
-    private static final Pattern SCHEMAS_PATTERN = Pattern.compile("^" + RefType.COMPONENTS.getInternalPrefix() + "schemas/(?<name>.+)");
-    private static final Pattern RESPONSES_PATTERN = Pattern.compile("^" + RefType.COMPONENTS.getInternalPrefix() + "responses/(?<name>.+)");
-    private static final Pattern PARAMETERS_PATTERN = Pattern.compile("^" + RefType.COMPONENTS.getInternalPrefix() + "parameters/(?<name>.+)");
-    private static final Pattern REQUEST_BODIES_PATTERN = Pattern.compile("^" + RefType.COMPONENTS.getInternalPrefix() + "requestBodies/(?<name>.+)");
-    private static final Pattern EXAMPLES_PATTERN = Pattern.compile("^" + RefType.COMPONENTS.getInternalPrefix() + "examples/(?<name>.+)");
-    private static final Pattern LINKS_PATTERN = Pattern.compile("^" + RefType.COMPONENTS.getInternalPrefix() + "links/(?<name>.+)");
-    private static final Pattern CALLBACKS_PATTERN = Pattern.compile("^" + RefType.COMPONENTS.getInternalPrefix() + "callbacks/(?<name>.+)");
-    private static final Pattern HEADERS_PATTERN = Pattern.compile("^" + RefType.COMPONENTS.getInternalPrefix() + "headers/(?<name>.+)");
-    private static final Pattern SECURITY_SCHEMES = Pattern.compile("^" + RefType.COMPONENTS.getInternalPrefix() + "securitySchemes/(?<name>.+)");
-    private static final Pattern PATHS_PATTERN = Pattern.compile("^" + RefType.PATH.getInternalPrefix() +  "(?<name>.+)");
+    static Logger LOGGER = LoggerFactory.getLogger(ResolverCache.class);
 
     private final OpenAPI openApi;
     private final List<AuthorizationValue> auths;
     private final Path parentDirectory;
     private final String rootPath;
-    private Map<String, Object> resolutionCache = new HashMap<>();
-    private Map<String, String> externalFileCache = new HashMap<>();
-    private Set<String> referencedModelKeys = new HashSet<>();
+    private final DocumentCache documentCache;
+    /*
+    resolved refs and parsed documents can be created again, so they are only held softly and may be dropped by
+    the garbage collector; raw documents are held as UTF-8 and dropped once parsed if they exceed the budget
+     */
+    private Map<String, Object> resolutionCache = new SoftValueMap<>();
+    private DocumentMap externalFileCache = new DocumentMap();
+    private Map<String, ParsedDocument> externalTreeCache = new SoftValueMap<>();
+    private volatile long memoryBudget = Long.MAX_VALUE;
+    private volatile ParseBudget budget;
+    // documents counted against the budget, so that reading one again after it was dropped is free
+    private final Set<String> budgetedDocuments = ConcurrentHashMap.newKeySet();
+    private final AtomicLong budgetedBytes = new AtomicLong();
+    private volatile ParseBudgetExceededException budgetExceeded;
+    private volatile CancellationToken cancellationToken;
+    private Map<String, InternalRef> internalRefCache = new ConcurrentHashMap<>();
+    private Set<String> referencedModelKeys = ConcurrentHashMap.newKeySet();
+    // what the deserializer reported about components loaded from other documents
+    private final List<String> messages = Collections.synchronizedList(new ArrayList<>());
+
+    /*
+    loads currently in progress, so that concurrent callers asking for the same ref or file wait for the
+    one running load instead of starting their own
+     */
+    private final ConcurrentMap<String, CompletableFuture<Object>> refLoads = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, CompletableFuture<String>> fileLoads = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, CompletableFuture<ParsedDocument>> treeLoads = new ConcurrentHashMap<>();
 
     /*
     a map that stores original external references, and their associated renamed references
      */
-    private Map<String, String> renameCache = new HashMap<>();
+    private Map<String, String> renameCache = new ConcurrentHashMap<>();
+
+    /*
+    the next suffix to try for each component type and name, so that finding a free name for yet another
+    conflicting import doesn't probe all the names handed out before
+     */
+    private final Map<String, Integer> nextNameSuffixes = new HashMap<>();
+    // the names handed out for each component type and name, in order, indexed by the components imported under them
+    private final Map<String, ImportedComponents> importedComponents = new HashMap<>();
 
     public ResolverCache(OpenAPI openApi, List<AuthorizationValue> auths, String parentFileLocation) {
+        this(openApi, auths, parentFileLocation, null);
+    }
+
+    /**
+     * @param documentCache if not null, external documents are looked up in and added to this cache, which
+     *                      may be shared with other resolutions
+     */
+    public ResolverCache(OpenAPI openApi, List<AuthorizationValue> auths, String parentFileLocation, DocumentCache documentCache) {
         this.openApi = openApi;
         this.auths = auths;
         this.rootPath = parentFileLocation;
+        this.documentCache = documentCache;
 
         if(parentFileLocation != null) {
             if(parentFileLocation.startsWith("http")) {
@@ -81,6 +150,10 @@ public class ResolverCache {
     }
 
     public <T> T loadRef(String ref, RefFormat refFormat, Class<T> expectedType) {
+        final CancellationToken cancellationToken = this.cancellationToken;
+        if (cancellationToken != null) {
+            cancellationToken.throwIfCancelled();
+        }
         if (refFormat == RefFormat.INTERNAL) {
             //we don't need to go get anything for internal refs
             Object loadedRef = loadInternalRef(ref);
@@ -93,67 +166,435 @@ public class ResolverCache {
             }
         }
 
-        final String[] refParts = ref.split("#/");
+        return expectedType.cast(loadOnce(resolutionCache, refLoads, ref, () -> loadExternalRef(ref, refFormat, expectedType)));
+    }
+
+    private <T> T loadExternalRef(String ref, RefFormat refFormat, Class<T> expectedType) {
+        final Ref parsedRef = Ref.of(ref);
+        final String file = parsedRef.getFile();
+        final String definitionPath = parsedRef.getDefinitionPath();
+
+        //we have not resolved this particular ref
+        //but we may have already loaded the file or url in question
+        final String location = documentCache != null ? getDocumentLocation(file, refFormat) : null;
 
-        if (refParts.length > 2) {
-            throw new RuntimeException("Invalid ref format: " + ref);
+        if (definitionPath == null) {
+            final String contents = loadExternalFile(file, refFormat, location);
+            return DeserializationUtils.deserialize(contents, file, expectedType);
         }
 
-        final String file = refParts[0];
-        final String definitionPath = refParts.length == 2 ? refParts[1] : null;
+        //a definition path is defined, meaning we need to "dig down" through the JSON tree and get the desired entity
+        //the tree of each external file is parsed once and shared by all refs into that file
+        final ParsedDocument document = loadOnce(externalTreeCache, treeLoads, file,
+                () -> parseExternalFile(file, loadExternalFile(file, refFormat, location), location));
 
-        //we might have already resolved this ref, so check the resolutionCache
-        Object previouslyResolvedEntity = resolutionCache.get(ref);
+        JsonNode tree = resolvePointer(document, definitionPath);
+        //if at any point we do find an element we expect, print and error and abort
+        if (tree == null) {
+            throw new RuntimeException("Could not find " + definitionPath + " in contents of " + file);
+        }
 
-        if (previouslyResolvedEntity != null) {
-            return expectedType.cast(previouslyResolvedEntity);
+        T result = null;
+        if (tree instanceof ObjectNode) {
+            result = new OpenAPIDeserializer().getComponent((ObjectNode) tree, expectedType, ref, messages);
+            convertExampleValues(result);
+        }
+        if (result == null) {
+            // not a component type, or rejected by the deserializer: fall back to plain databind
+            result = DeserializationUtils.deserialize(tree, file, expectedType);
         }
 
-        //we have not resolved this particular ref
-        //but we may have already loaded the file or url in question
-        String contents = externalFileCache.get(file);
+        updateLocalRefs(file, result);
 
-        if (contents == null) {
-            if(parentDirectory != null) {
-                contents = RefUtils.readExternalRef(file, refFormat, auths, parentDirectory);
+        return result;
+    }
+
+    /**
+     * The messages the deserializer reported for components loaded from other documents, prefixed with the ref
+     * they were loaded from.
+     */
+    public List<String> getMessages() {
+        synchronized (messages) {
+            return new ArrayList<>(messages);
+        }
+    }
+
+    /*
+    the deserializer keeps object and array examples as JSON nodes; examples loaded from other documents have
+    always been plain maps and lists, as databind and the deserializer's extensions produce them
+     */
+    private static void convertExampleValues(Object component) {
+        if (component instanceof Schema) {
+            convertExampleValues((Schema) component);
+        } else if (component instanceof Example) {
+            convertExampleValue((Example) component);
+        } else if (component instanceof Parameter) {
+            Parameter parameter = (Parameter) component;
+            if (parameter.getExample() instanceof JsonNode) {
+                parameter.setExample(plainValue(parameter.getExample()));
+            }
+            convertExampleValues(parameter.getExamples());
+            convertExampleValues(parameter.getSchema());
+            convertExampleValues(parameter.getContent());
+        } else if (component instanceof Header) {
+            Header header = (Header) component;
+            if (header.getExample() instanceof JsonNode) {
+                header.setExample(plainValue(header.getExample()));
             }
-            else if(rootPath != null) {
-                contents = RefUtils.readExternalUrlRef(file, refFormat, auths, rootPath);
+            convertExampleValues(header.getExamples());
+            convertExampleValues(header.getSchema());
+            convertExampleValues(header.getContent());
+        } else if (component instanceof RequestBody) {
+            convertExampleValues(((RequestBody) component).getContent());
+        } else if (component instanceof ApiResponse) {
+            ApiResponse response = (ApiResponse) component;
+            convertExampleValues(response.getContent());
+            if (response.getHeaders() != null) {
+                for (Header header : response.getHeaders().values()) {
+                    convertExampleValues(header);
+                }
             }
-            externalFileCache.put(file, contents);
         }
+    }
 
-        if (definitionPath == null) {
-            T result = DeserializationUtils.deserialize(contents, file, expectedType);
-            resolutionCache.put(ref, result);
-            return result;
+    private static void convertExampleValues(Content content) {
+        if (content == null) {
+            return;
+        }
+        for (MediaType mediaType : content.values()) {
+            if (mediaType != null) {
+                if (mediaType.getExample() instanceof JsonNode) {
+                    mediaType.setExample(plainValue(mediaType.getExample()));
+                }
+                convertExampleValues(mediaType.getExamples());
+                convertExampleValues(mediaType.getSchema());
+            }
+        }
+    }
+
+    private static void convertExampleValues(Map<String, Example> examples) {
+        if (examples != null) {
+            for (Example example : examples.values()) {
+                convertExampleValue(example);
+            }
         }
+    }
 
-        //a definition path is defined, meaning we need to "dig down" through the JSON tree and get the desired entity
-        JsonNode tree = DeserializationUtils.deserializeIntoTree(contents, file);
+    private static void convertExampleValue(Example example) {
+        if (example != null && example.getValue() instanceof JsonNode) {
+            example.setValue(plainValue(example.getValue()));
+        }
+    }
 
-        String[] jsonPathElements = definitionPath.split("/");
-        for (String jsonPathElement : jsonPathElements) {
-            tree = tree.get(unescapePointer(jsonPathElement));
-            //if at any point we do find an element we expect, print and error and abort
-            if (tree == null) {
-                throw new RuntimeException("Could not find " + definitionPath + " in contents of " + file);
+    private static void convertExampleValues(Schema schema) {
+        if (schema == null) {
+            return;
+        }
+        if (schema.getExample() instanceof JsonNode) {
+            schema.setExample(plainValue(schema.getExample()));
+        }
+        if (schema.getProperties() != null) {
+            for (Object property : schema.getProperties().values()) {
+                convertExampleValues((Schema) property);
             }
         }
+        if (schema.getAdditionalProperties() instanceof Schema) {
+            convertExampleValues((Schema) schema.getAdditionalProperties());
+        }
+        convertExampleValues(schema.getNot());
+        if (schema instanceof ArraySchema) {
+            convertExampleValues(((ArraySchema) schema).getItems());
+        }
+        if (schema instanceof ComposedSchema) {
+            ComposedSchema composedSchema = (ComposedSchema) schema;
+            for (List<Schema> members : Arrays.asList(composedSchema.getAllOf(), composedSchema.getOneOf(), composedSchema.getAnyOf())) {
+                if (members != null) {
+                    for (Schema member : members) {
+                        convertExampleValues(member);
+                    }
+                }
+            }
+        }
+    }
 
-        T result;
-        if (expectedType.equals(Schema.class)) {
-            OpenAPIDeserializer deserializer = new OpenAPIDeserializer();
-            result = (T) deserializer.getSchema((ObjectNode) tree, definitionPath.replace("/", "."), null);
-        } else {
-            result = DeserializationUtils.deserialize(tree, file, expectedType);
+    private static Object plainValue(Object value) {
+        return value instanceof JsonNode ? Json.mapper().convertValue(value, Object.class) : value;
+    }
+
+    /**
+     * Reads and parses, on the given executor, every external document referenced from {@code root} and,
+     * transitively, from the documents it references, so that resolution itself finds them in this cache.
+     * Returns when all discovered documents have been loaded. Unreadable documents are ignored here; they are
+     * reported when the failing ref is actually resolved. An exceeded parse budget or a cancelled parse stops
+     * the whole parse, so the first of those is thrown once the loads that already started have finished.
+     */
+    public void prefetchExternalRefs(JsonNode root, Executor executor) {
+        final Set<String> seen = ConcurrentHashMap.newKeySet();
+        final Phaser pending = new Phaser(1);
+        final AtomicReference<RuntimeException> failure = new AtomicReference<>();
+        for (String file : collectExternalFiles(root, null)) {
+            if (seen.add(file)) {
+                prefetch(file, executor, seen, pending, failure);
+            }
         }
+        pending.arriveAndAwaitAdvance();
+        if (failure.get() != null) {
+            throw failure.get();
+        }
+    }
 
-        updateLocalRefs(file, result);
+    private void prefetch(final String file, final Executor executor, final Set<String> seen, final Phaser pending,
+                          final AtomicReference<RuntimeException> failure) {
+        pending.register();
+        final Runnable task = () -> {
+            try {
+                final RefFormat refFormat = RefUtils.computeRefFormat(file);
+                final String location = documentCache != null ? getDocumentLocation(file, refFormat) : null;
+                final ParsedDocument document = loadOnce(externalTreeCache, treeLoads, file, () -> {
+                    final String contents = loadExternalFile(file, refFormat, location);
+                    return contents != null ? parseExternalFile(file, contents, location) : null;
+                });
+                if (document == null) {
+                    return;
+                }
+                for (String referenced : collectExternalFiles(document.root, file)) {
+                    if (seen.add(referenced)) {
+                        prefetch(referenced, executor, seen, pending, failure);
+                    }
+                }
+            } catch (ParseBudgetExceededException | ParseCancelledException e) {
+                failure.compareAndSet(null, e);
+            } catch (RuntimeException e) {
+                LOGGER.debug("Unable to prefetch " + file, e);
+            } finally {
+                pending.arriveAndDeregister();
+            }
+        };
+        try {
+            executor.execute(task);
+        } catch (RejectedExecutionException e) {
+            pending.arriveAndDeregister();
+        }
+    }
 
-        resolutionCache.put(ref, result);
+    /**
+     * The files of all external refs in the tree, as the processors will ask for them: relative to the
+     * referring file when the tree is an external document itself.
+     */
+    private static Set<String> collectExternalFiles(JsonNode root, String referringFile) {
+        final Set<String> files = new LinkedHashSet<>();
+        final Deque<JsonNode> stack = new ArrayDeque<>();
+        stack.push(root);
+        while (!stack.isEmpty()) {
+            final JsonNode node = stack.pop();
+            final JsonNode ref = node.get("$ref");
+            if (ref != null && ref.isTextual()) {
+                final String file = getExternalFile(ref.textValue(), referringFile);
+                if (file != null) {
+                    files.add(file);
+                }
+            }
+            for (JsonNode child : node) {
+                if (child.isContainerNode()) {
+                    stack.push(child);
+                }
+            }
+        }
+        return files;
+    }
 
-        return result;
+    private static String getExternalFile(String ref, String referringFile) {
+        final String mungedRef = RefUtils.mungedRef(ref);
+        final RefFormat refFormat = RefUtils.computeRefFormat(mungedRef);
+        if (!RefUtils.isAnExternalRefFormat(refFormat)) {
+            return null;
+        }
+        final String file;
+        try {
+            file = Ref.of(mungedRef).getFile();
+        } catch (RuntimeException e) {
+            // invalid refs are reported when they are resolved
+            return null;
+        }
+        if (file.isEmpty()) {
+            return null;
+        }
+        if (referringFile != null && refFormat == RefFormat.RELATIVE) {
+            return ExternalRefProcessor.join(referringFile, file);
+        }
+        return file;
+    }
+
+    private String loadExternalFile(String file, RefFormat refFormat, String location) {
+        final String contents = loadOnce(externalFileCache, fileLoads, file, () -> readExternalFile(file, refFormat, location));
+        if (externalFileCache.getRetainedBytes() > memoryBudget) {
+            // documents that were parsed already are only needed again if their parsed form gets dropped
+            externalFileCache.trim(memoryBudget, externalTreeCache::containsKey);
+        }
+        return contents;
+    }
+
+    private String readExternalFile(String file, RefFormat refFormat, String location) {
+        if (budgetExceeded != null) {
+            throw budgetExceeded;
+        }
+        String contents = null;
+        if (location != null) {
+            contents = documentCache.get(location, auths);
+        }
+        if (contents == null) {
+            final CancellationToken cancellationToken = this.cancellationToken;
+            final CancellationToken previous = RemoteUrl.bindCancellationToken(cancellationToken);
+            final long maxBytes = readLimit();
+            try {
+                if (maxBytes > 0) {
+                    if (parentDirectory != null) {
+                        contents = RefUtils.readExternalRef(file, refFormat, auths, parentDirectory, maxBytes);
+                    } else if (rootPath != null) {
+                        contents = RefUtils.readExternalUrlRef(file, refFormat, auths, rootPath, maxBytes);
+                    }
+                } else if(parentDirectory != null) {
+                    contents = RefUtils.readExternalRef(file, refFormat, auths, parentDirectory);
+                }
+                else if(rootPath != null) {
+                    contents = RefUtils.readExternalUrlRef(file, refFormat, auths, rootPath);
+                }
+            } catch (ParseBudgetExceededException e) {
+                // the read stopped at the smaller of the remaining limits, report the one that was hit
+                throw overBudget(file, e);
+            } catch (RuntimeException e) {
+                // a read disconnected by the token fails with a wrapped I/O error, report the cancellation instead
+                if (cancellationToken != null) {
+                    cancellationToken.throwIfCancelled();
+                }
+                throw e;
+            } finally {
+                RemoteUrl.bindCancellationToken(previous);
+            }
+            // nothing over budget gets into the shared document cache
+            if (budget != null && contents != null) {
+                checkBudget(file, contents);
+            }
+            if (location != null) {
+                contents = documentCache.put(location, auths, contents);
+            }
+        }
+        if (budget != null && contents != null) {
+            checkBudget(file, contents);
+        }
+        return contents;
+    }
+
+    /**
+     * The most bytes the next external document may have: the smaller of the input limit and what is left of
+     * the external bytes limit, or 0 for no limit.
+     */
+    private long readLimit() {
+        final ParseBudget budget = this.budget;
+        if (budget == null) {
+            return 0;
+        }
+        long limit = budget.getMaxInputBytes();
+        if (budget.getMaxExternalBytes() > 0) {
+            // a document that fits exactly is still read in full, so the remaining bytes never mean "no limit"
+            long remaining = Math.max(1, budget.getMaxExternalBytes() - budgetedBytes.get());
+            limit = limit > 0 ? Math.min(limit, remaining) : remaining;
+        }
+        return limit;
+    }
+
+    /**
+     * Records the document counts and bytes of the given document against the budget, and checks its nodes
+     * and nesting depth without building its tree. Every document is checked once per parse.
+     */
+    private void checkBudget(String file, String contents) {
+        final ParseBudget budget = this.budget;
+        if (!budgetedDocuments.add(file)) {
+            return;
+        }
+        final long bytes = contents.getBytes(StandardCharsets.UTF_8).length;
+        try {
+            checkBytes(budget, file, bytes);
+            DeserializationUtils.checkNodes(contents, budget, file);
+        } catch (ParseBudgetExceededException e) {
+            // once over budget, nothing else gets read
+            budgetExceeded = e;
+            throw e;
+        }
+    }
+
+    private void checkBytes(ParseBudget budget, String file, long bytes) {
+        ParseBudget.check(ParseBudget.Limit.INPUT_BYTES, budget.getMaxInputBytes(), bytes, file);
+        ParseBudget.check(ParseBudget.Limit.EXTERNAL_DOCUMENTS, budget.getMaxExternalDocuments(), budgetedDocuments.size(), file);
+        ParseBudget.check(ParseBudget.Limit.EXTERNAL_BYTES, budget.getMaxExternalBytes(), budgetedBytes.addAndGet(bytes), file);
+    }
+
+    /**
+     * The failure to report for a read that was stopped at {@link #readLimit()}, against the limit it went over.
+     */
+    private ParseBudgetExceededException overBudget(String file, ParseBudgetExceededException e) {
+        ParseBudgetExceededException exceeded = e;
+        budgetedDocuments.add(file);
+        try {
+            checkBytes(budget, file, e.getValue());
+        } catch (ParseBudgetExceededException limit) {
+            exceeded = limit;
+        }
+        // once over budget, nothing else gets read
+        budgetExceeded = exceeded;
+        return exceeded;
+    }
+
+    private ParsedDocument parseExternalFile(String file, String contents, String location) {
+        Object parsed = location != null ? documentCache.getParsed(location, auths) : null;
+        if (parsed instanceof JsonNode) {
+            return new ParsedDocument((JsonNode) parsed);
+        }
+        JsonNode tree = DeserializationUtils.deserializeIntoTree(contents, file);
+        if (location != null) {
+            documentCache.putParsed(location, auths, tree);
+        }
+        return new ParsedDocument(tree);
+    }
+
+    /**
+     * Returns the value cached for the key, or loads and caches it. Concurrent callers for the same key wait for
+     * the single running load. Null values are not cached.
+     */
+    private <V> V loadOnce(Map<String, V> cache, ConcurrentMap<String, CompletableFuture<V>> loads, String key, Supplier<V> loader) {
+        V value = cache.get(key);
+        if (value != null) {
+            return value;
+        }
+        final CompletableFuture<V> load = new CompletableFuture<>();
+        final CompletableFuture<V> running = loads.putIfAbsent(key, load);
+        if (running != null) {
+            try {
+                return running.join();
+            } catch (CompletionException e) {
+                if (e.getCause() instanceof RuntimeException) {
+                    throw (RuntimeException) e.getCause();
+                }
+                throw e;
+            }
+        }
+        try {
+            // another load may have completed between the lookup and registering ours
+            value = cache.get(key);
+            if (value == null) {
+                value = loader.get();
+                if (value != null) {
+                    cache.put(key, value);
+                }
+            }
+            load.complete(value);
+            return value;
+        } catch (RuntimeException e) {
+            load.completeExceptionally(e);
+            throw e;
+        } finally {
+            loads.remove(key, load);
+        }
     }
 
     protected <T> void updateLocalRefs(String file, T result) {
@@ -214,45 +655,100 @@ public class ResolverCache {
 
 
     private Object loadInternalRef(String ref) {
-        Object result = null;
+        InternalRef internalRef = internalRefCache.get(ref);
+        if (internalRef == null) {
+            internalRef = InternalRef.parse(ref);
+            internalRefCache.put(ref, internalRef);
+        }
+        if (internalRef.name == null) {
+            return null;
+        }
+        if (internalRef.type == InternalRefType.PATHS) {
+            return openApi.getPaths() != null ? openApi.getPaths().get(internalRef.name) : null;
+        }
+        final Components components = openApi.getComponents();
+        if (components == null) {
+            return null;
+        }
+        final Map<String, ?> map;
+        switch (internalRef.type) {
+            case SCHEMAS:
+                map = components.getSchemas();
+                break;
+            case REQUEST_BODIES:
+                map = components.getRequestBodies();
+                break;
+            case EXAMPLES:
+                map = components.getExamples();
+                break;
+            case RESPONSES:
+                map = components.getResponses();
+                break;
+            case PARAMETERS:
+                map = components.getParameters();
+                break;
+            case LINKS:
+                map = components.getLinks();
+                break;
+            case HEADERS:
+                map = components.getHeaders();
+                break;
+            case CALLBACKS:
+                map = components.getCallbacks();
+                break;
+            case SECURITY_SCHEMES:
+                map = components.getSecuritySchemes();
+                break;
+            default:
+                map = null;
+        }
+        return map != null ? map.get(internalRef.name) : null;
+    }
 
-        if (ref.startsWith("#/paths")) {
-            result = getFromMap(ref, openApi.getPaths(), PATHS_PATTERN);
-        } else if (openApi.getComponents() != null){
-            if(ref.startsWith("#/components/schemas")) {
-                result = getFromMap(ref, openApi.getComponents().getSchemas(), SCHEMAS_PATTERN);
-            }
-            else if(ref.startsWith("#/components/requestBodies")) {
-                result = getFromMap(ref, openApi.getComponents().getRequestBodies(), REQUEST_BODIES_PATTERN);
-            }
-            else if(ref.startsWith("#/components/examples")) {
-                result = getFromMap(ref, openApi.getComponents().getExamples(), EXAMPLES_PATTERN);
-            }
-            else if(ref.startsWith("#/components/responses")) {
-                result = getFromMap(ref, openApi.getComponents().getResponses(), RESPONSES_PATTERN);
-            }
-            else if(ref.startsWith("#/components/parameters")) {
-                result = getFromMap(ref, openApi.getComponents().getParameters(), PARAMETERS_PATTERN);
-            }
-            else if(ref.startsWith("#/components/links")) {
-                result = getFromMap(ref, openApi.getComponents().getLinks(), LINKS_PATTERN);
-            }
-            else if(ref.startsWith("#/components/headers")) {
-                result = getFromMap(ref, openApi.getComponents().getHeaders(), HEADERS_PATTERN);
-            }
-            else if(ref.startsWith("#/components/callbacks")) {
-                result = getFromMap(ref, openApi.getComponents().getCallbacks(), CALLBACKS_PATTERN);
-            }
-            else if(ref.startsWith("#/components/securitySchemes")) {
-                result = getFromMap(ref, openApi.getComponents().getSecuritySchemes(), SECURITY_SCHEMES);
+    /**
+     * The normalized location an external file is read from, used as its key in the shared document cache.
+     */
+    private String getDocumentLocation(String file, RefFormat refFormat) {
+        if (refFormat == RefFormat.URL) {
+            return file;
+        }
+        if (parentDirectory != null) {
+            try {
+                return parentDirectory.resolve(file).normalize().toString();
+            } catch (InvalidPathException e) {
+                return null;
             }
         }
+        return rootPath != null ? RefUtils.buildUrl(rootPath, file) : null;
+    }
 
-        return result;
-
+    /**
+     * Evaluates a JSON pointer (without the leading "#/") against the tree of an external file. Every pointer
+     * and each of its prefixes is remembered with the document, so refs into the same document only evaluate
+     * the segments that no earlier ref has walked already.
+     */
+    private JsonNode resolvePointer(ParsedDocument document, String definitionPath) {
+        JsonNode node = document.pointers.get(definitionPath);
+        if (node != null) {
+            return node;
+        }
+        int lastSlash = definitionPath.lastIndexOf('/');
+        JsonNode parent = lastSlash < 0 ? document.root : resolvePointer(document, definitionPath.substring(0, lastSlash));
+        if (parent == null) {
+            return null;
+        }
+        node = parent.get(unescapePointer(definitionPath.substring(lastSlash + 1)));
+        if (node != null) {
+            document.pointers.put(definitionPath, node);
+        }
+        return node;
     }
 
-    private String unescapePointer(String jsonPathElement) {
+    private static String unescapePointer(String jsonPathElement) {
+        if (jsonPathElement.indexOf('%') < 0 && jsonPathElement.indexOf('+') < 0 && jsonPathElement.indexOf('~') < 0) {
+            // nothing to decode or unescape
+            return jsonPathElement;
+        }
         // URL decode the fragment
         try {
             jsonPathElement = URLDecoder.decode(jsonPathElement, "UTF-8");
@@ -262,22 +758,9 @@ public class ResolverCache {
         // Unescape the JSON Pointer segment using the algorithm described in RFC 6901, section 4:
         // https://tools.ietf.org/html/rfc6901#section-4
         // First transform any occurrence of the sequence '~1' to '/'
-        jsonPathElement = jsonPathElement.replaceAll("~1", "/");
+        jsonPathElement = jsonPathElement.replace("~1", "/");
         // Then transforming any occurrence of the sequence '~0' to '~'.
-        return jsonPathElement.replaceAll("~0", "~");
-    }
-
-    private Object getFromMap(String ref, Map map, Pattern pattern) {
-        final Matcher parameterMatcher = pattern.matcher(ref);
-
-        if (parameterMatcher.matches()) {
-            final String paramName = unescapePointer(parameterMatcher.group("name"));
-
-            if (map != null) {
-                return map.get(paramName);
-            }
-        }
-        return null;
+        return jsonPathElement.replace("~0", "~");
     }
 
     public boolean hasReferencedKey(String modelKey) {
@@ -299,6 +782,149 @@ public class ResolverCache {
         renameCache.put(originalRef, newRef);
     }
 
+    /**
+     * Returns a name, derived from the given one by appending {@code _2}, {@code _3} and so on, that is not yet
+     * taken in the given component map. The same sequence of calls always hands out the same names.
+     */
+    public synchronized String getFreeComponentName(String componentType, String name, Map<String, ?> components) {
+        final String key = componentType + "/" + name;
+        int suffix = nextNameSuffixes.getOrDefault(key, 2);
+        String candidate = name + "_" + suffix;
+        while (components.containsKey(candidate)) {
+            candidate = name + "_" + ++suffix;
+        }
+        nextNameSuffixes.put(key, suffix + 1);
+        importedComponents.computeIfAbsent(key, k -> new ImportedComponents()).names.add(candidate);
+        return candidate;
+    }
+
+    /**
+     * Returns the name an equal component was already imported from another document under, either the given
+     * name itself or one handed out by {@link #getFreeComponentName(String, String, Map)}, or null if there is
+     * none. The first such name is returned, so the result does not depend on anything but the imports made.
+     */
+    public synchronized String getImportedComponentName(String componentType, String name, Object component, Map<String, ?> components) {
+        if (hasReferencedKey(name) && component.equals(components.get(name))) {
+            return name;
+        }
+        ImportedComponents imported = importedComponents.get(componentType + "/" + name);
+        if (imported == null) {
+            return null;
+        }
+        imported.index(components);
+        List<String> candidates = imported.byHash.get(shapeHash(component));
+        if (candidates != null) {
+            for (String candidate : candidates) {
+                if (component.equals(components.get(candidate))) {
+                    return candidate;
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * A hash of the parts of a component that importing it never changes: the refs inside an imported schema
+     * are rewritten to the names it gets, so they are left out. Equal components have equal hashes.
+     */
+    private static int shapeHash(Object component) {
+        if (!(component instanceof Schema)) {
+            return component.getClass().hashCode();
+        }
+        Schema schema = (Schema) component;
+        int hash = Objects.hash(schema.getClass(), schema.getType(), schema.getFormat(), schema.getTitle(),
+                schema.getDescription(), schema.getRequired(), schema.getEnum());
+        if (schema.getProperties() != null) {
+            hash = 31 * hash + schema.getProperties().keySet().hashCode();
+        }
+        return hash;
+    }
+
+    /**
+     * The names handed out for one component type and base name, indexed by the {@link #shapeHash(Object)} of
+     * the components imported under them. A name is indexed once its component is in the map.
+     */
+    private static final class ImportedComponents {
+        private final List<String> names = new ArrayList<>();
+        private final Map<Integer, List<String>> byHash = new HashMap<>();
+        private final List<String> pending = new ArrayList<>();
+        private int indexed;
+
+        void index(Map<String, ?> components) {
+            if (!pending.isEmpty()) {
+                List<String> waiting = new ArrayList<>(pending);
+                pending.clear();
+                waiting.forEach(name -> index(name, components));
+            }
+            for (; indexed < names.size(); indexed++) {
+                index(names.get(indexed), components);
+            }
+        }
+
+        private void index(String name, Map<String, ?> components) {
+            Object component = components.get(name);
+            if (component == null) {
+                pending.add(name);
+            } else {
+                byHash.computeIfAbsent(shapeHash(component), hash -> new ArrayList<>()).add(name);
+            }
+        }
+    }
+
+    /**
+     * Limits the UTF-8 bytes of raw external documents this cache retains. Past the budget, documents that were
+     * parsed already are dropped and read again only if they are needed after their parsed form was collected.
+     * Resolved refs and parsed documents are always held softly, so the garbage collector may drop them when
+     * memory runs low.
+     */
+    public void setMemoryBudget(long memoryBudget) {
+        this.memoryBudget = memoryBudget;
+    }
+
+    public long getMemoryBudget() {
+        return memoryBudget;
+    }
+
+    /**
+     * Limits the number and size of the external documents read through this cache. Going over a limit throws
+     * a {@link ParseBudgetExceededException} from the load that did, and from every later load that has to read
+     * a document.
+     */
+    public void setBudget(ParseBudget budget) {
+        this.budget = budget;
+    }
+
+    public ParseBudget getBudget() {
+        return budget;
+    }
+
+    /**
+     * Makes every ref load, and the remote read it may be blocked in, stop with a
+     * {@link io.swagger.v3.parser.core.models.ParseCancelledException} once the token is cancelled or its
+     * deadline passes.
+     */
+    public void setCancellationToken(CancellationToken cancellationToken) {
+        this.cancellationToken = cancellationToken;
+    }
+
+    public CancellationToken getCancellationToken() {
+        return cancellationToken;
+    }
+
+    /**
+     * The UTF-8 bytes of the raw external documents currently retained.
+     */
+    public long getRetainedBytes() {
+        return externalFileCache.getRetainedBytes();
+    }
+
+    /**
+     * The number of raw external documents dropped to stay within the memory budget.
+     */
+    public long getDroppedDocumentCount() {
+        return externalFileCache.getDroppedCount();
+    }
+
     public Map<String, Object> getResolutionCache() {
         return Collections.unmodifiableMap(resolutionCache);
     }
@@ -310,4 +936,192 @@ public class ResolverCache {
     public Map<String, String> getRenameCache() {
         return Collections.unmodifiableMap(renameCache);
     }
+
+    /**
+     * The tree of an external document, with the nodes found so far for the JSON pointers into it.
+     */
+    private static final class ParsedDocument {
+        private final JsonNode root;
+        private final Map<String, JsonNode> pointers = new ConcurrentHashMap<>();
+
+        ParsedDocument(JsonNode root) {
+            this.root = root;
+        }
+    }
+
+    /**
+     * A concurrent map holding its values through soft references. Values dropped by the garbage collector read
+     * as absent, so they are simply loaded again.
+     */
+    private static final class SoftValueMap<V> extends AbstractMap<String, V> {
+        private final ConcurrentMap<String, SoftReference<V>> references = new ConcurrentHashMap<>();
+
+        @Override
+        public V get(Object key) {
+            final SoftReference<V> reference = references.get(key);
+            if (reference == null) {
+                return null;
+            }
+            final V value = reference.get();
+            if (value == null) {
+                references.remove(key, reference);
+            }
+            return value;
+        }
+
+        @Override
+        public boolean containsKey(Object key) {
+            return get(key) != null;
+        }
+
+        @Override
+        public V put(String key, V value) {
+            final SoftReference<V> previous = references.put(key, new SoftReference<>(value));
+            return previous != null ? previous.get() : null;
+        }
+
+        @Override
+        public V remove(Object key) {
+            final SoftReference<V> previous = references.remove(key);
+            return previous != null ? previous.get() : null;
+        }
+
+        @Override
+        public Set<Entry<String, V>> entrySet() {
+            final Map<String, V> values = new LinkedHashMap<>();
+            for (Map.Entry<String, SoftReference<V>> entry : references.entrySet()) {
+                final V value = entry.getValue().get();
+                if (value != null) {
+                    values.put(entry.getKey(), value);
+                }
+            }
+            return Collections.unmodifiableMap(values).entrySet();
+        }
+    }
+
+    /**
+     * Raw documents by file, stored as UTF-8, which takes half the memory of a string for mostly ASCII
+     * documents, and decoded again when read.
+     */
+    private static final class DocumentMap extends AbstractMap<String, String> {
+        private final ConcurrentMap<String, byte[]> documents = new ConcurrentHashMap<>();
+        private final AtomicLong retainedBytes = new AtomicLong();
+        private final AtomicLong droppedCount = new AtomicLong();
+
+        @Override
+        public String get(Object key) {
+            final byte[] document = documents.get(key);
+            return document != null ? new String(document, StandardCharsets.UTF_8) : null;
+        }
+
+        @Override
+        public boolean containsKey(Object key) {
+            return documents.containsKey(key);
+        }
+
+        @Override
+        public String put(String key, String value) {
+            final byte[] document = value.getBytes(StandardCharsets.UTF_8);
+            final byte[] previous = documents.put(key, document);
+            retainedBytes.addAndGet(document.length - (previous != null ? previous.length : 0));
+            return previous != null ? new String(previous, StandardCharsets.UTF_8) : null;
+        }
+
+        @Override
+        public Set<Entry<String, String>> entrySet() {
+            final Map<String, String> values = new LinkedHashMap<>();
+            for (Map.Entry<String, byte[]> entry : documents.entrySet()) {
+                values.put(entry.getKey(), new String(entry.getValue(), StandardCharsets.UTF_8));
+            }
+            return Collections.unmodifiableMap(values).entrySet();
+        }
+
+        long getRetainedBytes() {
+            return retainedBytes.get();
+        }
+
+        long getDroppedCount() {
+            return droppedCount.get();
+        }
+
+        /**
+         * Drops droppable documents until no more than the budget is retained.
+         */
+        void trim(long budget, Predicate<String> droppable) {
+            for (Map.Entry<String, byte[]> entry : documents.entrySet()) {
+                if (retainedBytes.get() <= budget) {
+                    return;
+                }
+                if (droppable.test(entry.getKey()) && documents.remove(entry.getKey(), entry.getValue())) {
+                    retainedBytes.addAndGet(-entry.getValue().length);
+                    droppedCount.incrementAndGet();
+                }
+            }
+        }
+    }
+
+    private enum InternalRefType {
+        PATHS, SCHEMAS, REQUEST_BODIES, EXAMPLES, RESPONSES, PARAMETERS, LINKS, HEADERS, CALLBACKS, SECURITY_SCHEMES
+    }
+
+    /**
+     * The component map and unescaped key an internal ref points at, parsed once per ref string. A null name
+     * marks a ref that does not point into a known map.
+     */
+    private static final class InternalRef {
+        private static final InternalRef UNKNOWN = new InternalRef(null, null);
+
+        private final InternalRefType type;
+        private final String name;
+
+        private InternalRef(InternalRefType type, String name) {
+            this.type = type;
+            this.name = name;
+        }
+
+        static InternalRef parse(String ref) {
+            final String pathsPrefix = RefType.PATH.getInternalPrefix();
+            final String componentsPrefix = RefType.COMPONENTS.getInternalPrefix();
+            if (ref.startsWith(pathsPrefix)) {
+                return of(InternalRefType.PATHS, ref.substring(pathsPrefix.length()));
+            }
+            if (!ref.startsWith(componentsPrefix)) {
+                return UNKNOWN;
+            }
+            final int slash = ref.indexOf('/', componentsPrefix.length());
+            if (slash < 0) {
+                return UNKNOWN;
+            }
+            final String name = ref.substring(slash + 1);
+            switch (ref.substring(componentsPrefix.length(), slash)) {
+                case "schemas":
+                    return of(InternalRefType.SCHEMAS, name);
+                case "requestBodies":
+                    return of(InternalRefType.REQUEST_BODIES, name);
+                case "examples":
+                    return of(InternalRefType.EXAMPLES, name);
+                case "responses":
+                    return of(InternalRefType.RESPONSES, name);
+                case "parameters":
+                    return of(InternalRefType.PARAMETERS, name);
+                case "links":
+                    return of(InternalRefType.LINKS, name);
+                case "headers":
+                    return of(InternalRefType.HEADERS, name);
+                case "callbacks":
+                    return of(InternalRefType.CALLBACKS, name);
+                case "securitySchemes":
+                    return of(InternalRefType.SECURITY_SCHEMES, name);
+                default:
+                    return UNKNOWN;
+            }
+        }
+
+        private static InternalRef of(InternalRefType type, String name) {
+            if (name.isEmpty()) {
+                return UNKNOWN;
+            }
+            return new InternalRef(type, unescapePointer(name));
+        }
+    }
 }
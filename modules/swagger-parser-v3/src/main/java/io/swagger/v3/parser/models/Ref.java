@@ -0,0 +1,186 @@
+package io.swagger.v3.parser.models;
+
+import io.swagger.v3.parser.util.RefUtils;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A parsed {@code $ref} value: its file part, JSON pointer, format and the definition name it maps to.
+ *
+ * Instances are interned per distinct ref string via {@link #of(String)}, so the splitting done by
+ * {@link RefUtils#computeRefFormat(String)} and {@link RefUtils#computeDefinitionName(String)} happens
+ * once per ref instead of once per use. The table is a least recently used cache, split into stripes that are
+ * locked separately, so it stays bounded in long running processes without dropping the refs in use.
+ */
+public final class Ref {
+
+    private static final int STRIPES = 16;
+    private static final int MAX_INTERNED_PER_STRIPE = 1024;
+    private static final Map<String, Ref>[] INTERNED = newStripes();
+
+    private final String ref;
+    private volatile RefFormat format;
+    private final boolean valid;
+    private final String file;
+    private final String definitionPath;
+    private final List<String> pointerTokens;
+    private final String definitionName;
+
+    public static Ref of(String ref) {
+        final int hash = ref.hashCode();
+        final Map<String, Ref> stripe = INTERNED[(hash ^ (hash >>> 16)) & (STRIPES - 1)];
+        synchronized (stripe) {
+            final Ref result = stripe.get(ref);
+            if (result != null) {
+                return result;
+            }
+        }
+        // parsed outside the lock; if another thread interned the ref meanwhile, its instance wins
+        final Ref parsed = new Ref(ref);
+        synchronized (stripe) {
+            final Ref existing = stripe.putIfAbsent(ref, parsed);
+            return existing != null ? existing : parsed;
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, Ref>[] newStripes() {
+        final Map<String, Ref>[] stripes = new Map[STRIPES];
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new LinkedHashMap<String, Ref>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, Ref> eldest) {
+                    return size() > MAX_INTERNED_PER_STRIPE;
+                }
+            };
+        }
+        return stripes;
+    }
+
+    private Ref(String ref) {
+        this.ref = ref;
+
+        final String[] refParts = ref.split("#/");
+        this.valid = refParts.length > 0 && refParts.length <= 2;
+        if (!valid) {
+            this.file = null;
+            this.definitionPath = null;
+            this.pointerTokens = Collections.emptyList();
+            this.definitionName = null;
+            return;
+        }
+
+        this.file = refParts[0];
+        this.definitionPath = refParts.length == 2 ? refParts[1] : null;
+
+        if (definitionPath != null) { //the name will come from the last element of the definition path
+            final String[] jsonPathElements = definitionPath.split("/");
+            this.pointerTokens = Collections.unmodifiableList(Arrays.asList(jsonPathElements));
+            this.definitionName = jsonPathElements[jsonPathElements.length - 1];
+        } else { //no definition path, so we must come up with a name from the file
+            this.pointerTokens = Collections.emptyList();
+            final String[] filePathElements = file.split("/");
+            String plausibleName = filePathElements[filePathElements.length - 1];
+
+            final String[] split = plausibleName.split("\\.");
+            this.definitionName = split[0];
+        }
+    }
+
+    private static RefFormat computeFormat(String ref) {
+        RefFormat result = RefFormat.INTERNAL;
+        ref = RefUtils.mungedRef(ref);
+        if(ref.startsWith("http")) {
+            result = RefFormat.URL;
+        } else if(ref.startsWith("#/")) {
+            result = RefFormat.INTERNAL;
+        } else if(ref.startsWith(".") || ref.startsWith("/") || ref.indexOf("#/") > 0) {
+            result = RefFormat.RELATIVE;
+        }
+        return result;
+    }
+
+    /**
+     * The ref string this instance was parsed from.
+     */
+    public String getRef() {
+        return ref;
+    }
+
+    public RefFormat getFormat() {
+        // computed on first use, loading a ref by its file and pointer never needs it
+        RefFormat result = format;
+        if (result == null) {
+            result = computeFormat(ref);
+            format = result;
+        }
+        return result;
+    }
+
+    public boolean isExternal() {
+        return RefUtils.isAnExternalRefFormat(getFormat());
+    }
+
+    /**
+     * The part before {@code #/}; empty for internal refs.
+     */
+    public String getFile() {
+        checkValid();
+        return file;
+    }
+
+    /**
+     * The JSON pointer after {@code #/}, or null when the ref points at a whole file.
+     */
+    public String getDefinitionPath() {
+        checkValid();
+        return definitionPath;
+    }
+
+    /**
+     * The still escaped segments of the definition path.
+     */
+    public List<String> getPointerTokens() {
+        checkValid();
+        return pointerTokens;
+    }
+
+    /**
+     * The last segment of the definition path, or the file name without extension for whole file refs.
+     */
+    public String getDefinitionName() {
+        checkValid();
+        return definitionName;
+    }
+
+    private void checkValid() {
+        if (!valid) {
+            throw new RuntimeException("Invalid ref format: " + ref);
+        }
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        return ref.equals(((Ref) o).ref);
+    }
+
+    @Override
+    public int hashCode() {
+        return ref.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return ref;
+    }
+}
@@ -1,5 +1,6 @@
 package io.swagger.v3.parser.processors;
 
+import io.swagger.v3.oas.models.Components;
 import io.swagger.v3.oas.models.OpenAPI;
 import io.swagger.v3.oas.models.callbacks.Callback;
 import io.swagger.v3.oas.models.examples.Example;
@@ -10,12 +11,23 @@ import io.swagger.v3.oas.models.parameters.Parameter;
 import io.swagger.v3.oas.models.parameters.RequestBody;
 import io.swagger.v3.oas.models.responses.ApiResponse;
 import io.swagger.v3.oas.models.security.SecurityScheme;
+import io.swagger.v3.parser.OpenAPIResolver;
 import io.swagger.v3.parser.ResolverCache;
+import io.swagger.v3.parser.util.RefGraph;
 
 
-import java.util.LinkedHashSet;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
 
 
 /**
@@ -33,10 +45,16 @@ public class ComponentsProcessor {
     private final LinkProcessor linkProcessor;
     private final CallbackProcessor callbackProcessor;
     private final SecuritySchemeProcessor securitySchemeProcessor;
+    private final OpenAPIResolver.Settings settings;
 
     public ComponentsProcessor(OpenAPI openApi,ResolverCache cache){
+        this(openApi, cache, new OpenAPIResolver.Settings());
+    }
+
+    public ComponentsProcessor(OpenAPI openApi, ResolverCache cache, OpenAPIResolver.Settings settings){
         this.cache = cache;
         this.openApi = openApi;
+        this.settings = settings;
         this.schemaProcessor = new SchemaProcessor(cache,openApi);
         this.responseProcessor = new ResponseProcessor(cache, openApi);
         this.requestBodyProcessor = new RequestBodyProcessor(cache, openApi);
@@ -65,179 +83,119 @@ public class ComponentsProcessor {
         final Map<String, Callback> callbacks = openApi.getComponents().getCallbacks();
         final Map<String, SecurityScheme> securitySchemes = openApi.getComponents().getSecuritySchemes();
 
-        //schemas
-        if (schemas != null) {
-            Set<String> keySet = new LinkedHashSet<>();
-            while(schemas.keySet().size() > keySet.size()) {
-                processSchemas(keySet, schemas);
-            }
-        }
-
-        //responses
-        if (responses != null) {
-            Set<String> keySet = new LinkedHashSet<>();
-            while(responses.keySet().size() > keySet.size()) {
-                processResponses(keySet, responses);
-            }
-        }
+        // components are processed after the components they reference, in the order of the graph's strongly
+        // connected components
+        final Map<String, Integer> order = new HashMap<>();
+        for (String node : RefGraph.build(openApi).getResolutionOrder()) {
+            order.put(node, order.size());
+        }
+
+        final Components components = openApi.getComponents();
+        processComponents("schemas", schemas, components::setSchemas, order, this::processSchema);
+        processComponents("responses", responses, components::setResponses, order, (name, response) -> responseProcessor.processResponse(response));
+        processComponents("requestBodies", requestBodies, components::setRequestBodies, order, (name, requestBody) -> requestBodyProcessor.processRequestBody(requestBody));
+        processComponents("parameters", parameters, components::setParameters, order, (name, parameter) -> parameterProcessor.processParameter(parameter));
+        processComponents("headers", headers, components::setHeaders, order, (name, header) -> headerProcessor.processHeader(header));
+        processComponents("examples", examples, components::setExamples, order, (name, example) -> exampleProcessor.processExample(example));
+        processComponents("links", links, components::setLinks, order, (name, link) -> linkProcessor.processLink(link));
+        processComponents("callbacks", callbacks, components::setCallbacks, order, (name, callback) -> callbackProcessor.processCallback(callback));
+        processComponents("securitySchemes", securitySchemes, components::setSecuritySchemes, order, (name, securityScheme) -> {
+            SecurityScheme resolvedSecurityScheme = securitySchemeProcessor.processSecurityScheme(securityScheme);
+            components.getSecuritySchemes().replace(name, securityScheme, resolvedSecurityScheme);
+        });
+    }
 
-        //requestBodies
-        if (requestBodies != null) {
-            Set<String> keySet = new LinkedHashSet<>();
-            while(requestBodies.keySet().size() > keySet.size()) {
-                processRequestBodies(keySet, requestBodies);
-            }
+    /**
+     * Processes every component of the map exactly once, in the given resolution order. Processing may import
+     * external components into the same map; while it runs the map is swapped for a {@link WorklistMap} that
+     * queues the names added to it, and those are processed in turn until the queue is empty. The original map
+     * is updated and put back afterwards.
+     */
+    private <T> void processComponents(String type, Map<String, T> components, Consumer<Map<String, T>> setter,
+                                       Map<String, Integer> order, BiConsumer<String, T> processor) {
+        if (components == null) {
+            return;
         }
-
-        //parameters
-        if (parameters != null) {
-            Set<String> keySet = new LinkedHashSet<>();
-            while(parameters.keySet().size() > keySet.size()) {
-                processParameters(keySet, parameters);
+        final WorklistMap<T> worklist = new WorklistMap<>(components);
+        setter.accept(worklist);
+        try {
+            final Set<String> processed = new HashSet<>();
+            final List<String> initial = new ArrayList<>(components.keySet());
+            initial.sort(Comparator.comparingInt(name -> order.getOrDefault(RefGraph.componentNode(type, name), Integer.MAX_VALUE)));
+            worklist.added.addAll(initial);
+            while (!worklist.added.isEmpty()) {
+                if (settings.cancellationToken() != null) {
+                    settings.cancellationToken().throwIfCancelled();
+                }
+                final String name = worklist.added.poll();
+                if (processed.add(name) && worklist.containsKey(name)) {
+                    processor.accept(name, worklist.get(name));
+                }
             }
+        } finally {
+            components.clear();
+            components.putAll(worklist);
+            setter.accept(components);
         }
+    }
 
-        //headers
-        if (headers != null) {
-            Set<String> keySet = new LinkedHashSet<>();
-            while(headers.keySet().size() > keySet.size()) {
-                processHeaders(keySet, headers);
-            }
-        }
+    /**
+     * A component map that queues the names of the components added to it.
+     */
+    private static final class WorklistMap<T> extends LinkedHashMap<String, T> {
+        private final Deque<String> added = new ArrayDeque<>();
 
-        //examples
-        if (examples != null) {
-            Set<String> keySet = new LinkedHashSet<>();
-            while(examples.keySet().size() > keySet.size()) {
-                processExamples(keySet, examples);
-            }
+        WorklistMap(Map<String, T> components) {
+            super(components);
         }
 
-        //links
-        if (links != null) {
-            Set<String> keySet = new LinkedHashSet<>();
-            while(links.keySet().size() > keySet.size()) {
-                processLinks(keySet, links);
+        @Override
+        public T put(String key, T value) {
+            if (!containsKey(key)) {
+                added.add(key);
             }
+            return super.put(key, value);
         }
 
-        //callbacks
-        if (callbacks != null) {
-            Set<String> keySet = new LinkedHashSet<>();
-            while(callbacks.keySet().size() > keySet.size()) {
-                processCallbacks(keySet, callbacks);
+        @Override
+        public T putIfAbsent(String key, T value) {
+            if (!containsKey(key)) {
+                added.add(key);
             }
+            return super.putIfAbsent(key, value);
         }
 
-        //securitySchemes
-        if (securitySchemes != null) {
-            Set<String> keySet = new LinkedHashSet<>();
-            while(securitySchemes.keySet().size() > keySet.size()) {
-                processSecuritySchemes(keySet, securitySchemes);
+        @Override
+        public void putAll(Map<? extends String, ? extends T> map) {
+            for (Map.Entry<? extends String, ? extends T> entry : map.entrySet()) {
+                put(entry.getKey(), entry.getValue());
             }
         }
     }
 
-    private void processSecuritySchemes(Set<String> securitySchemeKey, Map<String, SecurityScheme> securitySchemes) {
-        securitySchemeKey.addAll(securitySchemes.keySet());
-
-        for (String securitySchemeName : securitySchemeKey) {
-            final SecurityScheme securityScheme = securitySchemes.get(securitySchemeName);
-            SecurityScheme resolvedSecurityScheme = securitySchemeProcessor.processSecurityScheme(securityScheme);
-            securitySchemes.replace(securitySchemeName,securityScheme,resolvedSecurityScheme);
-        }
-    }
-
-    private void processCallbacks(Set<String> callbackKey, Map<String, Callback> callbacks) {
-        callbackKey.addAll(callbacks.keySet());
-
-        for (String callbackName : callbackKey) {
-            final Callback callback = callbacks.get(callbackName);
-            callbackProcessor.processCallback(callback);
-        }
-    }
-
-    private void processLinks(Set<String> linkKey, Map<String, Link> links) {
-        linkKey.addAll(links.keySet());
-
-        for (String linkName : linkKey) {
-            final Link link = links.get(linkName);
-            linkProcessor.processLink(link);
-        }
-    }
-
-    private void processExamples(Set<String> exampleKey, Map<String, Example> examples) {
-        exampleKey.addAll(examples.keySet());
-
-        for (String exampleName : exampleKey) {
-            final Example example = examples.get(exampleName);
-            exampleProcessor.processExample(example);
-        }
-    }
-
-    private void processHeaders(Set<String> HeaderKey, Map<String, Header> headers) {
-        HeaderKey.addAll(headers.keySet());
-
-        for (String headersName : HeaderKey) {
-            final Header header = headers.get(headersName);
-            headerProcessor.processHeader(header);
-        }
-    }
-
-    private void processParameters(Set<String> ParametersKey, Map<String, Parameter> parameters) {
-        ParametersKey.addAll(parameters.keySet());
-
-        for (String parametersName : ParametersKey) {
-            final Parameter parameter = parameters.get(parametersName);
-            parameterProcessor.processParameter(parameter);
-        }
-    }
-
-    private void processRequestBodies(Set<String> requestBodyKey, Map<String, RequestBody> requestBodies) {
-        requestBodyKey.addAll(requestBodies.keySet());
-
-        for (String requestBodyName : requestBodyKey) {
-            final RequestBody requestBody = requestBodies.get(requestBodyName);
-            requestBodyProcessor.processRequestBody(requestBody);
-        }
-    }
-
-    private void processResponses(Set<String> responseKey, Map<String, ApiResponse> responses) {
-        responseKey.addAll(responses.keySet());
-
-        for (String responseName : responseKey) {
-            final ApiResponse response = responses.get(responseName);
-            responseProcessor.processResponse(response);
-        }
-    }
-
-    public void processSchemas(Set<String> schemaKeys, Map<String, Schema> schemas) {
-        schemaKeys.addAll(schemas.keySet());
-
-        for (String modelName : schemaKeys) {
-            final Schema model = schemas.get(modelName);
-
-            String originalRef = model.get$ref() != null  ? model.get$ref() : null;
+    private void processSchema(String modelName, Schema model) {
+        final Map<String, Schema> schemas = openApi.getComponents().getSchemas();
 
-            schemaProcessor.processSchema(model);
+        String originalRef = model.get$ref() != null  ? model.get$ref() : null;
 
-            //if we process a RefModel here, in the #/definitions table, we want to overwrite it with the referenced value
-            if (model.get$ref() != null) {
-                final String renamedRef = cache.getRenamedRef(originalRef);
+        schemaProcessor.processSchema(model);
 
-                if (renamedRef != null) {
-                    //we definitely resolved the referenced and shoved it in the definitions map
-                    // because the referenced model may be in the definitions map, we need to remove old instances
-                    final Schema resolvedModel = schemas.get(renamedRef);
+        //if we process a RefModel here, in the #/definitions table, we want to overwrite it with the referenced value
+        if (model.get$ref() != null) {
+            final String renamedRef = cache.getRenamedRef(originalRef);
 
-                    // ensure the reference isn't still in use
-                    if(!cache.hasReferencedKey(renamedRef)) {
-                        schemas.remove(renamedRef);
-                    }
+            if (renamedRef != null) {
+                //we definitely resolved the referenced and shoved it in the definitions map
+                // because the referenced model may be in the definitions map, we need to remove old instances
+                final Schema resolvedModel = schemas.get(renamedRef);
 
-                    // add the new key
-                    schemas.put(modelName, resolvedModel);
+                // ensure the reference isn't still in use
+                if(!cache.hasReferencedKey(renamedRef)) {
+                    schemas.remove(renamedRef);
                 }
+
+                // add the new key
+                schemas.put(modelName, resolvedModel);
             }
         }
     }
@@ -18,13 +18,19 @@ import io.swagger.v3.oas.models.responses.ApiResponse;
 import io.swagger.v3.oas.models.responses.ApiResponses;
 import io.swagger.v3.oas.models.security.SecurityScheme;
 import io.swagger.v3.parser.ResolverCache;
+import io.swagger.v3.parser.models.Ref;
 import io.swagger.v3.parser.models.RefFormat;
 import io.swagger.v3.parser.models.RefType;
 import org.apache.commons.lang3.StringUtils;
 import org.slf4j.LoggerFactory;
 
 import java.net.URI;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
 import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 
 import static io.swagger.v3.parser.util.RefUtils.computeDefinitionName;
@@ -43,6 +49,18 @@ public final class ExternalRefProcessor {
     }
 
     public String processRefToExternalSchema(String $ref, RefFormat refFormat) {
+        final Deque<Iterator<PendingRef>> pending = new ArrayDeque<>();
+        final String newRef = importSchema($ref, refFormat, pending);
+        processPendingRefs(pending);
+        return newRef;
+    }
+
+    /*
+    Imports the schema behind an external ref into the components, unless it was imported before, and queues
+    the refs found inside it. The refs are processed from an explicit stack instead of by recursion, in the same
+    depth first order, so that long chains of refs across files can't overflow the call stack.
+     */
+    private String importSchema(String $ref, RefFormat refFormat, Deque<Iterator<PendingRef>> pending) {
         String renamedRef = cache.getRenamedRef($ref);
         if(renamedRef != null) {
             return renamedRef;
@@ -68,143 +86,131 @@ public final class ExternalRefProcessor {
         }
 
         final String possiblyConflictingDefinitionName = computeDefinitionName($ref);
-        String tryName = null;
         Schema existingModel = schemas.get(possiblyConflictingDefinitionName);
 
-        if (existingModel != null) {
+        if (existingModel != null && existingModel.get$ref() == null) {
             LOGGER.debug("A model for " + existingModel + " already exists");
-            if(existingModel.get$ref() != null) {
-                // use the new model
-                existingModel = null;
-            }else{
-                //We add a number at the end of the definition name
-                int i = 2;
-                for (String name : schemas.keySet()) {
-                    if (name.equals(possiblyConflictingDefinitionName)) {
-                        tryName = possiblyConflictingDefinitionName + "_" + i;
-                        existingModel = schemas.get(tryName);
-                        i++;
-                    }
-                }
+            String importedRef = cache.getImportedComponentName("schemas", possiblyConflictingDefinitionName, schema, schemas);
+            if (importedRef != null) {
+                // the same model was imported from another document already, don't import it twice
+                cache.putRenamedRef($ref, importedRef);
+                return importedRef;
             }
-        }
-        if (StringUtils.isNotBlank(tryName)){
-            newRef = tryName;
+            //We add a number at the end of the definition name
+            newRef = cache.getFreeComponentName("schemas", possiblyConflictingDefinitionName, schemas);
         }else{
+            // an existing ref model is replaced by the new model
             newRef = possiblyConflictingDefinitionName;
         }
         cache.putRenamedRef($ref, newRef);
 
-        if(existingModel == null) {
-            // don't overwrite existing model reference
-            openAPI.getComponents().addSchemas(newRef, schema);
-            cache.addReferencedKey(newRef);
+        openAPI.getComponents().addSchemas(newRef, schema);
+        cache.addReferencedKey(newRef);
 
-            String file = $ref.split("#/")[0];
-            if (schema.get$ref() != null) {
-                RefFormat ref = computeRefFormat(schema.get$ref());
-                if (isAnExternalRefFormat(ref)) {
-                    schema.set$ref(processRefToExternalSchema(schema.get$ref(), ref));
-                } else {
-                    processRefToExternalSchema(file + schema.get$ref(), RefFormat.RELATIVE);
-                }
-            }
+        pending.push(collectRefs(schema, Ref.of($ref).getFile()).iterator());
 
-            if(schema instanceof ComposedSchema){
-                ComposedSchema composedSchema = (ComposedSchema) schema;
-                if (composedSchema.getAllOf() != null){
-                    for(Schema item : composedSchema.getAllOf()){
-                        if (item.get$ref() != null){
-                            processRefSchema(item,file);
-                        } else if (item.getProperties() != null) {
-                            processProperties(item.getProperties(), file);
-                        }
+        return newRef;
+    }
+
+    private List<PendingRef> collectRefs(Schema schema, String file) {
+        final List<PendingRef> refs = new ArrayList<>();
+        if (schema.get$ref() != null) {
+            refs.add(new PendingRef(schema, file, true));
+        }
+
+        if(schema instanceof ComposedSchema){
+            ComposedSchema composedSchema = (ComposedSchema) schema;
+            if (composedSchema.getAllOf() != null){
+                for(Schema item : composedSchema.getAllOf()){
+                    if (item.get$ref() != null){
+                        refs.add(new PendingRef(item, file, false));
+                    } else if (item.getProperties() != null) {
+                        collectPropertyRefs(item.getProperties(), file, refs);
                     }
+                }
 
-                }if (composedSchema.getOneOf() != null){
-                    for(Schema item : composedSchema.getOneOf()){
+            }if (composedSchema.getOneOf() != null){
+                for(Schema item : composedSchema.getOneOf()){
+                    if (item.get$ref() != null){
                         if (item.get$ref() != null){
-                            if (item.get$ref() != null){
-                                processRefSchema(item,file);
-                            }
+                            refs.add(new PendingRef(item, file, false));
                         }
                     }
-                }if (composedSchema.getAnyOf() != null){
-                    for(Schema item : composedSchema.getAnyOf()){
+                }
+            }if (composedSchema.getAnyOf() != null){
+                for(Schema item : composedSchema.getAnyOf()){
+                    if (item.get$ref() != null){
                         if (item.get$ref() != null){
-                            if (item.get$ref() != null){
-                                processRefSchema(item,file);
-                            }
+                            refs.add(new PendingRef(item, file, false));
                         }
                     }
-
                 }
+
             }
-            //Loop the properties and recursively call this method;
-            Map<String, Schema> subProps = schema.getProperties();
+        }
+        //Loop the properties
+        Map<String, Schema> subProps = schema.getProperties();
 
-            processProperties(subProps,file);
+        collectPropertyRefs(subProps, file, refs);
 
-            if(schema.getAdditionalProperties() != null && schema.getAdditionalProperties() instanceof Schema){
-                Schema additionalProperty = (Schema) schema.getAdditionalProperties();
-                if (additionalProperty.get$ref() != null) {
-                    processRefSchema(additionalProperty, file);
-                } else if (additionalProperty instanceof ArraySchema) {
-                    ArraySchema arrayProp = (ArraySchema) additionalProperty;
-                    if (arrayProp.getItems() != null && arrayProp.getItems().get$ref() != null &&
-                            StringUtils.isNotBlank(arrayProp.get$ref())) {
-                        processRefSchema(arrayProp.getItems(), file);
-                    }
-                } else if (additionalProperty.getAdditionalProperties() != null && additionalProperty.getAdditionalProperties() instanceof Schema) {
-                    Schema mapProp =  (Schema) additionalProperty.getAdditionalProperties();
-                    if (mapProp.get$ref() != null) {
-                        processRefSchema(mapProp, file);
-                    } else if (mapProp.getAdditionalProperties() instanceof ArraySchema &&
-                                ((ArraySchema) mapProp).getItems() != null &&
-                                    ((ArraySchema) mapProp).getItems().get$ref() != null
-                                    && StringUtils.isNotBlank(((ArraySchema) mapProp).getItems().get$ref()))  {
-                        processRefSchema(((ArraySchema) mapProp).getItems(), file);
-                    }
+        if(schema.getAdditionalProperties() != null && schema.getAdditionalProperties() instanceof Schema){
+            Schema additionalProperty = (Schema) schema.getAdditionalProperties();
+            if (additionalProperty.get$ref() != null) {
+                refs.add(new PendingRef(additionalProperty, file, false));
+            } else if (additionalProperty instanceof ArraySchema) {
+                ArraySchema arrayProp = (ArraySchema) additionalProperty;
+                if (arrayProp.getItems() != null && arrayProp.getItems().get$ref() != null &&
+                        StringUtils.isNotBlank(arrayProp.get$ref())) {
+                    refs.add(new PendingRef(arrayProp.getItems(), file, false));
+                }
+            } else if (additionalProperty.getAdditionalProperties() != null && additionalProperty.getAdditionalProperties() instanceof Schema) {
+                Schema mapProp =  (Schema) additionalProperty.getAdditionalProperties();
+                if (mapProp.get$ref() != null) {
+                    refs.add(new PendingRef(mapProp, file, false));
+                } else if (mapProp.getAdditionalProperties() instanceof ArraySchema &&
+                            ((ArraySchema) mapProp).getItems() != null &&
+                                ((ArraySchema) mapProp).getItems().get$ref() != null
+                                && StringUtils.isNotBlank(((ArraySchema) mapProp).getItems().get$ref()))  {
+                    refs.add(new PendingRef(((ArraySchema) mapProp).getItems(), file, false));
                 }
-
-            }
-            if (schema instanceof ArraySchema && ((ArraySchema) schema).getItems() != null && ((ArraySchema) schema).getItems().get$ref() != null
-                    && StringUtils.isNotBlank(((ArraySchema) schema).getItems().get$ref())) {
-                processRefSchema(((ArraySchema) schema).getItems(), file);
             }
-        }
 
-        return newRef;
+        }
+        if (schema instanceof ArraySchema && ((ArraySchema) schema).getItems() != null && ((ArraySchema) schema).getItems().get$ref() != null
+                && StringUtils.isNotBlank(((ArraySchema) schema).getItems().get$ref())) {
+            refs.add(new PendingRef(((ArraySchema) schema).getItems(), file, false));
+        }
+        return refs;
     }
 
-    private void processProperties(Map<String,Schema> subProps, String file) {
+    private void collectPropertyRefs(Map<String,Schema> subProps, String file, List<PendingRef> refs) {
         if (subProps != null) {
             for (Map.Entry<String, Schema> prop : subProps.entrySet()) {
                 if (prop.getValue().get$ref() != null) {
-                    processRefSchema(prop.getValue(), file);
+                    refs.add(new PendingRef(prop.getValue(), file, false));
                 } else if (prop.getValue() instanceof ArraySchema) {
                     ArraySchema arrayProp = (ArraySchema) prop.getValue();
                     if (arrayProp.getItems() != null && arrayProp.getItems().get$ref() != null &&
                             StringUtils.isNotBlank(arrayProp.getItems().get$ref())) {
-                        processRefSchema(arrayProp.getItems(), file);
+                        refs.add(new PendingRef(arrayProp.getItems(), file, false));
                     }
                     if (arrayProp.getItems() != null && arrayProp.getItems().getProperties() != null ) {
-                        processProperties(arrayProp.getItems().getProperties(), file);
+                        collectPropertyRefs(arrayProp.getItems().getProperties(), file, refs);
                     }
                 } else if (prop.getValue().getAdditionalProperties() != null && prop.getValue().getAdditionalProperties() instanceof Schema) {
                     Schema mapProp =  (Schema) prop.getValue().getAdditionalProperties();
                     if (mapProp.get$ref() != null) {
-                        processRefSchema(mapProp, file);
+                        refs.add(new PendingRef(mapProp, file, false));
                     } else if (mapProp.getAdditionalProperties() instanceof ArraySchema &&
                             ((ArraySchema) mapProp.getAdditionalProperties()).getItems()!= null &&
                             ((ArraySchema) mapProp.getAdditionalProperties()).getItems().get$ref() != null
                             && StringUtils.isNotBlank(((ArraySchema) mapProp.getAdditionalProperties()).getItems().get$ref())) {
-                        processRefSchema(((ArraySchema) mapProp.getAdditionalProperties()).getItems(), file);
+                        refs.add(new PendingRef(((ArraySchema) mapProp.getAdditionalProperties()).getItems(), file, false));
                     }
                 }else if (prop.getValue() instanceof ObjectSchema){
                     ObjectSchema objProp = (ObjectSchema) prop.getValue();
                     if(objProp.getProperties() != null ){
-                        processProperties(objProp.getProperties(),file);
+                        collectPropertyRefs(objProp.getProperties(), file, refs);
                     }
                 }
             }
@@ -245,7 +251,7 @@ public final class ExternalRefProcessor {
 
         if(response != null) {
 
-        String file = $ref.split("#/")[0];
+        String file = Ref.of($ref).getFile();
 
             Schema schema = null;
             if(response.getContent() != null){
@@ -313,7 +319,7 @@ public final class ExternalRefProcessor {
             openAPI.getComponents().addRequestBodies(newRef, body);
             cache.addReferencedKey(newRef);
 
-            String file = $ref.split("#/")[0];
+            String file = Ref.of($ref).getFile();
             if (body.get$ref() != null) {
                 RefFormat format = computeRefFormat(body.get$ref());
                 if (isAnExternalRefFormat(format)) {
@@ -371,7 +377,7 @@ public final class ExternalRefProcessor {
             openAPI.getComponents().addHeaders(newRef, header);
             cache.addReferencedKey(newRef);
 
-            String file = $ref.split("#/")[0];
+            String file = Ref.of($ref).getFile();
             if (header.get$ref() != null) {
                 RefFormat format = computeRefFormat(header.get$ref());
                 if (isAnExternalRefFormat(format)) {
@@ -429,7 +435,7 @@ public final class ExternalRefProcessor {
             openAPI.getComponents().addSecuritySchemes(newRef, securityScheme);
             cache.addReferencedKey(newRef);
 
-            String file = $ref.split("#/")[0];
+            String file = Ref.of($ref).getFile();
             if (securityScheme.get$ref() != null) {
                 RefFormat format = computeRefFormat(securityScheme.get$ref());
                 if (isAnExternalRefFormat(format)) {
@@ -487,7 +493,7 @@ public final class ExternalRefProcessor {
             openAPI.getComponents().addLinks(newRef, link);
             cache.addReferencedKey(newRef);
 
-            String file = $ref.split("#/")[0];
+            String file = Ref.of($ref).getFile();
             if (link.get$ref() != null) {
                 RefFormat format = computeRefFormat(link.get$ref());
                 if (isAnExternalRefFormat(format)) {
@@ -545,7 +551,7 @@ public final class ExternalRefProcessor {
             openAPI.getComponents().addExamples(newRef, example);
             cache.addReferencedKey(newRef);
 
-            String file = $ref.split("#/")[0];
+            String file = Ref.of($ref).getFile();
             if (example.get$ref() != null) {
                 RefFormat format = computeRefFormat(example.get$ref());
                 if (isAnExternalRefFormat(format)) {
@@ -603,7 +609,7 @@ public final class ExternalRefProcessor {
             openAPI.getComponents().addParameters(newRef, parameter);
             cache.addReferencedKey(newRef);
 
-            String file = $ref.split("#/")[0];
+            String file = Ref.of($ref).getFile();
             if (parameter.get$ref() != null) {
                 RefFormat format = computeRefFormat(parameter.get$ref());
                 if (isAnExternalRefFormat(format)) {
@@ -661,7 +667,7 @@ public final class ExternalRefProcessor {
             openAPI.getComponents().addCallbacks(newRef, callback);
             cache.addReferencedKey(newRef);
 
-            String file = $ref.split("#/")[0];
+            String file = Ref.of($ref).getFile();
             if(callback.get("$ref") != null){
                 if (callback.get("$ref").get$ref() != null) {
                     RefFormat format = computeRefFormat(callback.get("$ref").get$ref());
@@ -678,10 +684,39 @@ public final class ExternalRefProcessor {
     }
 
     private void processRefSchema(Schema subRef, String externalFile) {
+        final Deque<Iterator<PendingRef>> pending = new ArrayDeque<>();
+        processRef(new PendingRef(subRef, externalFile, false), pending);
+        processPendingRefs(pending);
+    }
+
+    private void processPendingRefs(Deque<Iterator<PendingRef>> pending) {
+        while (!pending.isEmpty()) {
+            final Iterator<PendingRef> refs = pending.peek();
+            if (refs.hasNext()) {
+                processRef(refs.next(), pending);
+            } else {
+                pending.pop();
+            }
+        }
+    }
+
+    private void processRef(PendingRef pendingRef, Deque<Iterator<PendingRef>> pending) {
+        final Schema subRef = pendingRef.schema;
+        final String externalFile = pendingRef.file;
         RefFormat format = computeRefFormat(subRef.get$ref());
 
+        if (pendingRef.root) {
+            // the imported schema is a ref itself
+            if (isAnExternalRefFormat(format)) {
+                subRef.set$ref(importSchema(subRef.get$ref(), format, pending));
+            } else {
+                importSchema(externalFile + subRef.get$ref(), RefFormat.RELATIVE, pending);
+            }
+            return;
+        }
+
         if (!isAnExternalRefFormat(format)) {
-            subRef.set$ref(RefType.SCHEMAS.getInternalPrefix()+ processRefToExternalSchema(externalFile + subRef.get$ref(), RefFormat.RELATIVE));
+            subRef.set$ref(RefType.SCHEMAS.getInternalPrefix()+ importSchema(externalFile + subRef.get$ref(), RefFormat.RELATIVE, pending));
             return;
         }
         String $ref = subRef.get$ref();
@@ -690,7 +725,7 @@ public final class ExternalRefProcessor {
             $ref = constructRef(subRef, externalFile);
             subRef.set$ref($ref);
         }else {
-            processRefToExternalSchema($ref, format);
+            importSchema($ref, format, pending);
         }
     }
 
@@ -730,5 +765,16 @@ public final class ExternalRefProcessor {
         }
     }
 
+    private static final class PendingRef {
+        private final Schema schema;
+        private final String file;
+        // true for the ref of an imported schema that is a ref itself, false for refs nested inside it
+        private final boolean root;
 
+        PendingRef(Schema schema, String file, boolean root) {
+            this.schema = schema;
+            this.file = file;
+            this.root = root;
+        }
+    }
 }
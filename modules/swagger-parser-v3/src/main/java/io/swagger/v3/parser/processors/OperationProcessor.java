@@ -11,8 +11,11 @@ import io.swagger.v3.oas.models.parameters.Parameter;
 import io.swagger.v3.parser.ResolverCache;
 import io.swagger.v3.parser.models.RefFormat;
 
+import java.util.Collections;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 import static io.swagger.v3.parser.util.RefUtils.computeRefFormat;
 import static io.swagger.v3.parser.util.RefUtils.isAnExternalRefFormat;
@@ -24,6 +27,7 @@ public class OperationProcessor {
     private final ResponseProcessor responseProcessor;
     private final ExternalRefProcessor externalRefProcessor;
     private final ResolverCache cache;
+    private final Set<Operation> processedOperations = Collections.newSetFromMap(new IdentityHashMap<>());
 
 
     public OperationProcessor(ResolverCache cache, OpenAPI openAPI) {
@@ -36,6 +40,9 @@ public class OperationProcessor {
     }
 
     public void processOperation(Operation operation) {
+        if (!processedOperations.add(operation)) {
+            return;
+        }
         final List<Parameter> processedOperationParameters = parameterProcessor.processParameters(operation.getParameters());
         if(processedOperationParameters != null) {
             operation.setParameters(processedOperationParameters);
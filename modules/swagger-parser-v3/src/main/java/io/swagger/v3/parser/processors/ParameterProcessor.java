@@ -10,8 +10,11 @@ import io.swagger.v3.parser.ResolverCache;
 import io.swagger.v3.parser.models.RefFormat;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 import static io.swagger.v3.parser.util.RefUtils.computeRefFormat;
 import static io.swagger.v3.parser.util.RefUtils.isAnExternalRefFormat;
@@ -24,7 +27,8 @@ public class ParameterProcessor {
     private final ExampleProcessor exampleProcessor;
     private final OpenAPI openAPI;
     private final ExternalRefProcessor externalRefProcessor;
-
+    // parameters shared by several operations are only processed the first time they are met
+    private final Set<Parameter> processedParameters = Collections.newSetFromMap(new IdentityHashMap<>());
 
     public ParameterProcessor(ResolverCache cache, OpenAPI openAPI) {
         this.cache = cache;
@@ -35,6 +39,9 @@ public class ParameterProcessor {
     }
 
     public void processParameter(Parameter parameter) {
+        if (!processedParameters.add(parameter)) {
+            return;
+        }
         String $ref = parameter.get$ref();
         if($ref != null){
             RefFormat refFormat = computeRefFormat(parameter.get$ref());
@@ -51,39 +51,45 @@ public class PathsProcessor {
         }
 
         for (String pathStr : pathMap.keySet()) {
-            PathItem pathItem = pathMap.get(pathStr);
+            if (settings.cancellationToken() != null) {
+                settings.cancellationToken().throwIfCancelled();
+            }
+            processPath(pathStr, pathMap.get(pathStr));
+        }
+    }
 
-            addParametersToEachOperation(pathItem);
+    public PathItem processPath(String pathStr, PathItem pathItem) {
+        addParametersToEachOperation(pathItem);
 
-            if (pathItem.get$ref() != null) {
-                RefFormat refFormat = computeRefFormat(pathItem.get$ref());
-                PathItem resolvedPath = cache.loadRef(pathItem.get$ref(), refFormat, PathItem.class);
+        if (pathItem.get$ref() != null) {
+            RefFormat refFormat = computeRefFormat(pathItem.get$ref());
+            PathItem resolvedPath = cache.loadRef(pathItem.get$ref(), refFormat, PathItem.class);
 
-                // TODO: update references to the parent location
+            // TODO: update references to the parent location
 
-                String pathRef = pathItem.get$ref().split("#")[0];
+            String pathRef = pathItem.get$ref().split("#")[0];
 
-                if (resolvedPath != null) {
-                    updateLocalRefs(resolvedPath, pathRef);
-                    //we need to put the resolved path into swagger object
-                    openAPI.path(pathStr, resolvedPath);
-                    pathItem = resolvedPath;
-                }
+            if (resolvedPath != null) {
+                updateLocalRefs(resolvedPath, pathRef);
+                //we need to put the resolved path into swagger object
+                openAPI.path(pathStr, resolvedPath);
+                pathItem = resolvedPath;
             }
+        }
 
-            //at this point we can process this path
-            final List<Parameter> processedPathParameters = parameterProcessor.processParameters(pathItem.getParameters());
-            pathItem.setParameters(processedPathParameters);
+        //at this point we can process this path
+        final List<Parameter> processedPathParameters = parameterProcessor.processParameters(pathItem.getParameters());
+        pathItem.setParameters(processedPathParameters);
 
-            //addParametersToEachOperation(pathItem);
+        //addParametersToEachOperation(pathItem);
 
-            final Map<PathItem.HttpMethod, Operation> operationMap = pathItem.readOperationsMap();
+        final Map<PathItem.HttpMethod, Operation> operationMap = pathItem.readOperationsMap();
 
-            for (PathItem.HttpMethod httpMethod : operationMap.keySet()) {
-                Operation operation = operationMap.get(httpMethod);
-                operationProcessor.processOperation(operation);
-            }
+        for (PathItem.HttpMethod httpMethod : operationMap.keySet()) {
+            Operation operation = operationMap.get(httpMethod);
+            operationProcessor.processOperation(operation);
         }
+        return pathItem;
     }
 
     private void addParametersToEachOperation(PathItem pathItem) {
@@ -10,7 +10,10 @@ import io.swagger.v3.oas.models.OpenAPI;
 import io.swagger.v3.parser.ResolverCache;
 import io.swagger.v3.parser.models.RefFormat;
 
+import java.util.Collections;
+import java.util.IdentityHashMap;
 import java.util.Map;
+import java.util.Set;
 
 import static io.swagger.v3.parser.util.RefUtils.computeRefFormat;
 import static io.swagger.v3.parser.util.RefUtils.isAnExternalRefFormat;
@@ -24,6 +27,8 @@ public class ResponseProcessor {
     private final ExampleProcessor exampleProcessor;
     private final ResolverCache cache;
     private final OpenAPI openAPI;
+    // responses shared by several operations are only processed the first time they are met
+    private final Set<ApiResponse> processedResponses = Collections.newSetFromMap(new IdentityHashMap<>());
 
     public ResponseProcessor(ResolverCache cache, OpenAPI openAPI) {
         schemaProcessor = new SchemaProcessor(cache,openAPI);
@@ -36,6 +41,9 @@ public class ResponseProcessor {
     }
 
     public void processResponse(ApiResponse response) {
+        if (!processedResponses.add(response)) {
+            return;
+        }
 
         if (response.get$ref() != null){
             processReferenceResponse(response);
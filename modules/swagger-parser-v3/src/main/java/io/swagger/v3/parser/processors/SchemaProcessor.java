@@ -12,9 +12,12 @@ import io.swagger.v3.parser.models.RefFormat;
 import io.swagger.v3.parser.models.RefType;
 import io.swagger.v3.parser.util.RefUtils;
 
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 import static io.swagger.v3.parser.util.RefUtils.computeRefFormat;
 import static io.swagger.v3.parser.util.RefUtils.isAnExternalRefFormat;
@@ -22,7 +25,8 @@ import static io.swagger.v3.parser.util.RefUtils.isAnExternalRefFormat;
 
 public class SchemaProcessor {
     private final ExternalRefProcessor externalRefProcessor;
-
+    // schemas shared by several parents are only processed the first time they are met
+    private final Set<Schema> processedSchemas = Collections.newSetFromMap(new IdentityHashMap<>());
 
     public SchemaProcessor(ResolverCache cache, OpenAPI openAPI) {
         this.externalRefProcessor = new ExternalRefProcessor(cache, openAPI);
@@ -42,6 +46,9 @@ public class SchemaProcessor {
     }
 
     public void processSchemaType(Schema schema){
+        if (!processedSchemas.add(schema)) {
+            return;
+        }
 
         if (schema instanceof ArraySchema) {
             processArraySchema((ArraySchema) schema);
@@ -195,6 +202,9 @@ public class SchemaProcessor {
         2) shove it into the #/components/schemas
         3) update the RefModel to point to its location in #/components/schemas
      */
+        if (!processedSchemas.add(schema)) {
+            return;
+        }
         RefFormat refFormat = computeRefFormat(schema.get$ref());
         String $ref = schema.get$ref();
 
@@ -1,8 +1,12 @@
 package io.swagger.v3.parser.util;
 
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import io.swagger.v3.core.util.Yaml;
 import io.swagger.v3.core.util.Json;
+import io.swagger.v3.parser.core.models.ParseBudget;
 
 import java.io.IOException;
 
@@ -52,6 +56,47 @@ public class DeserializationUtils {
         return result;
     }
 
+    /**
+     * Throws if the contents go over the node count or nesting depth limits of the budget. Nodes and depth are
+     * counted while streaming through the contents, so an oversized tree is never built.
+     */
+    public static void checkNodes(String contents, ParseBudget budget, String fileOrHost) {
+        if (budget.getMaxNodeCount() <= 0 && budget.getMaxNestingDepth() <= 0) {
+            return;
+        }
+        ObjectMapper mapper = isJson(contents) ? Json.mapper() : Yaml.mapper();
+        try (JsonParser parser = mapper.getFactory().createParser(contents)) {
+            checkNodes(parser, budget, fileOrHost);
+        } catch (IOException e) {
+            // malformed contents are reported when they are deserialized
+        }
+    }
+
+    /**
+     * Throws if the document read by the parser goes over the node count or nesting depth limits of the budget.
+     */
+    public static void checkNodes(JsonParser parser, ParseBudget budget, String location) throws IOException {
+        if (budget.getMaxNodeCount() <= 0 && budget.getMaxNestingDepth() <= 0) {
+            return;
+        }
+        long nodes = 0;
+        int depth = 0;
+        JsonToken token;
+        while ((token = parser.nextToken()) != null) {
+            if (token == JsonToken.FIELD_NAME) {
+                continue;
+            }
+            if (token == JsonToken.END_OBJECT || token == JsonToken.END_ARRAY) {
+                depth--;
+                continue;
+            }
+            ParseBudget.check(ParseBudget.Limit.NODE_COUNT, budget.getMaxNodeCount(), ++nodes, location);
+            if (token == JsonToken.START_OBJECT || token == JsonToken.START_ARRAY) {
+                ParseBudget.check(ParseBudget.Limit.NESTING_DEPTH, budget.getMaxNestingDepth(), ++depth, location);
+            }
+        }
+    }
+
     private static boolean isJson(String contents) {
         return contents.toString().trim().startsWith("{");
     }
@@ -13,14 +13,17 @@ import io.swagger.v3.oas.models.media.XML;
 import io.swagger.v3.oas.models.parameters.Parameter;
 import io.swagger.v3.oas.models.parameters.RequestBody;
 import io.swagger.v3.oas.models.responses.ApiResponse;
-import io.swagger.v3.core.util.Json;
+import io.swagger.v3.parser.core.models.CancellationToken;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 
 public class InlineModelResolver {
     private OpenAPI openAPI;
@@ -28,10 +31,18 @@ public class InlineModelResolver {
     static Logger LOGGER = LoggerFactory.getLogger(InlineModelResolver.class);
 
     Map<String, Schema> addedModels = new HashMap<>();
-    Map<String, String> generatedSignature = new HashMap<>();
+    Map<Signature, String> generatedSignature = new HashMap<>();
+    // the suffix last handed out for each name, every lower one is taken
+    private Map<String, Integer> nameSuffixes = new HashMap<>();
+    private Signature lastSignature;
+    // the structural hash of every schema hashed so far, a nested schema is hashed once however many models hold it
+    private final Map<Schema, Integer> structuralHashes = new IdentityHashMap<>();
+    private CancellationToken cancellationToken;
 
     public void flatten(OpenAPI openAPI) {
         this.openAPI = openAPI;
+        this.nameSuffixes.clear();
+        this.structuralHashes.clear();
 
         if (openAPI.getComponents() != null) {
 
@@ -49,6 +60,7 @@ public class InlineModelResolver {
 
         if (paths != null) {
             for (String pathname : paths.keySet()) {
+                checkCancelled();
                 PathItem path = paths.get(pathname);
 
                 for (Operation operation : path.readOperations()) {
@@ -215,6 +227,7 @@ public class InlineModelResolver {
         if (models != null) {
             List<String> modelNames = new ArrayList<String>(models.keySet());
             for (String modelName : modelNames) {
+                checkCancelled();
                 Schema model = models.get(modelName);
                 if (model.getProperties() != null) {
                     Map<String, Schema> properties = model.getProperties();
@@ -258,6 +271,12 @@ public class InlineModelResolver {
         }
     }
 
+    private void checkCancelled() {
+        if (cancellationToken != null) {
+            cancellationToken.throwIfCancelled();
+        }
+    }
+
     /**
      * This function fix models that are string (mostly enum). Before this fix, the example
      * would look something like that in the doc: "\"example from def\""
@@ -285,44 +304,61 @@ public class InlineModelResolver {
         if (this.skipMatches) {
             return null;
         }
-        String json = Json.pretty(model);
-        if (generatedSignature.containsKey(json)) {
-            return generatedSignature.get(json);
-        }
-        return null;
+        return generatedSignature.get(signature(model));
     }
 
     public void addGenerated(String name, Schema model) {
-        generatedSignature.put(Json.pretty(model), name);
+        generatedSignature.put(signature(model).freeze(), name);
+        lastSignature = null;
+    }
+
+    private Signature signature(Schema model) {
+        // a model is usually matched and then added right away, so its hash is computed once
+        Signature signature = lastSignature;
+        if (signature == null || signature.model != model) {
+            signature = new Signature(model, structuralHashes);
+            lastSignature = signature;
+        }
+        return signature;
     }
 
     public String uniqueName(String key) {
-        int count = 0;
-        boolean done = false;
-        key = key.replaceAll("[^a-z_\\.A-Z0-9 ]", ""); // FIXME: a parameter
-        // should not be
-        // assigned. Also declare
-        // the methods parameters
-        // as 'final'.
-        while (!done) {
-            String name = key;
-            if (count > 0) {
-                name = key + "_" + count;
-            }
-            if (openAPI.getComponents().getSchemas() == null) {
-                return name;
-            } else if (!openAPI.getComponents().getSchemas().containsKey(name)) {
-                return name;
-            }
+        key = sanitizeName(key);
+        if (openAPI.getComponents().getSchemas() == null) {
+            return key;
+        }
+        Map<String, Schema> schemas = openAPI.getComponents().getSchemas();
+        int count = nameSuffixes.getOrDefault(key, 0);
+        String name = count > 0 ? key + "_" + count : key;
+        while (schemas.containsKey(name)) {
             count += 1;
+            name = key + "_" + count;
+        }
+        // the name may not end up being used, so the next call starts from it again
+        nameSuffixes.put(key, count);
+        return name;
+    }
+
+    private static String sanitizeName(String key) {
+        StringBuilder name = null;
+        for (int i = 0; i < key.length(); i++) {
+            char c = key.charAt(i);
+            boolean allowed = (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9')
+                    || c == '_' || c == '.' || c == ' ';
+            if (!allowed && name == null) {
+                name = new StringBuilder(key.length()).append(key, 0, i);
+            } else if (allowed && name != null) {
+                name.append(c);
+            }
         }
-        return key;
+        return name != null ? name.toString() : key;
     }
 
     public void flattenProperties(Map<String, Schema> properties, String path) {
         if (properties == null) {
             return;
         }
+        checkCancelled();
         Map<String, Schema> propsToUpdate = new HashMap<>();
         Map<String, Schema> modelsToAdd = new HashMap<>();
         for (String key : properties.keySet()) {
@@ -363,6 +399,8 @@ public class InlineModelResolver {
                             addGenerated(modelName, innerModel);
                             openAPI.getComponents().addSchemas(modelName, innerModel);
                         }
+                        // the array stays in the properties, which the model holding them is matched with
+                        structuralHashes.remove(ap);
                     }
                 }
             } else if (property.getAdditionalProperties() != null && property.getAdditionalProperties() instanceof Schema) {
@@ -382,6 +420,7 @@ public class InlineModelResolver {
                             addGenerated(modelName, innerModel);
                             openAPI.getComponents().addSchemas(modelName, innerModel);
                         }
+                        structuralHashes.remove(property);
                     }
                 }
             }
@@ -503,4 +542,168 @@ public class InlineModelResolver {
         this.skipMatches = skipMatches;
     }
 
-}
\ No newline at end of file
+    public CancellationToken getCancellationToken() {
+        return cancellationToken;
+    }
+
+    /**
+     * Makes flattening stop with a {@link io.swagger.v3.parser.core.models.ParseCancelledException} once the
+     * token is cancelled or its deadline passes.
+     */
+    public void setCancellationToken(CancellationToken cancellationToken) {
+        this.cancellationToken = cancellationToken;
+    }
+
+    /**
+     * The structure of an inline model, to find a generated model identical to it. The structural hash only
+     * groups candidates; the hashes of nested schemas are taken from the given map, keyed by instance, so a
+     * schema changed after it was hashed may miss a match but never makes a wrong one. Whether two models match
+     * is decided on structural copies of their fields, the same comparison their JSON trees made: the class of
+     * the schema does not matter, while the scale of decimal values does. A generated model is compared as it
+     * was when it was added, since it may be flattened further afterwards.
+     */
+    static final class Signature {
+        private final Schema model;
+        private final int hash;
+        private List<Object> shape;
+
+        Signature(Schema model, Map<Schema, Integer> hashes) {
+            this.model = model;
+            this.hash = structuralHash(model, hashes);
+        }
+
+        /*
+        the fields Schema.hashCode covers, without the class of the schema, which subclasses add in
+         */
+        private static int structuralHash(Schema schema, Map<Schema, Integer> hashes) {
+            if (schema == null) {
+                return 0;
+            }
+            Integer cached = hashes.get(schema);
+            if (cached != null) {
+                return cached;
+            }
+            int hash = Objects.hash(schema.getTitle(), schema.getMultipleOf(), schema.getMaximum(), schema.getExclusiveMaximum(),
+                    schema.getMinimum(), schema.getExclusiveMinimum(), schema.getMaxLength(), schema.getMinLength(),
+                    schema.getPattern(), schema.getMaxItems(), schema.getMinItems(), schema.getUniqueItems(),
+                    schema.getMaxProperties(), schema.getMinProperties(), schema.getRequired(), schema.getType(),
+                    schema.getDescription(), schema.getFormat(), schema.get$ref(), schema.getNullable(), schema.getReadOnly(),
+                    schema.getWriteOnly(), schema.getExample(), schema.getExternalDocs(), schema.getDeprecated(),
+                    schema.getXml(), schema.getExtensions(), schema.getDiscriminator(), schema.getEnum(), schema.getDefault());
+            hash = 31 * hash + structuralHash(schema.getNot(), hashes);
+            Map<String, Schema> properties = schema.getProperties();
+            if (properties != null) {
+                for (Map.Entry<String, Schema> property : properties.entrySet()) {
+                    hash += property.getKey().hashCode() ^ structuralHash(property.getValue(), hashes);
+                }
+            }
+            Object additionalProperties = schema.getAdditionalProperties();
+            hash = 31 * hash + (additionalProperties instanceof Schema ? structuralHash((Schema) additionalProperties, hashes) : Objects.hashCode(additionalProperties));
+            if (schema instanceof ArraySchema) {
+                hash = 31 * hash + structuralHash(((ArraySchema) schema).getItems(), hashes);
+            }
+            if (schema instanceof ComposedSchema) {
+                ComposedSchema composedSchema = (ComposedSchema) schema;
+                hash = 31 * hash + structuralHash(composedSchema.getAllOf(), hashes);
+                hash = 31 * hash + structuralHash(composedSchema.getOneOf(), hashes);
+                hash = 31 * hash + structuralHash(composedSchema.getAnyOf(), hashes);
+            }
+            hashes.put(schema, hash);
+            return hash;
+        }
+
+        private static int structuralHash(List<Schema> schemas, Map<Schema, Integer> hashes) {
+            if (schemas == null) {
+                return 0;
+            }
+            int hash = 1;
+            for (Schema schema : schemas) {
+                hash = 31 * hash + structuralHash(schema, hashes);
+            }
+            return hash;
+        }
+
+        /*
+        a copy of the fields the hash covers, with nested schemas copied the same way, that compares by value
+         */
+        private static List<Object> shape(Schema schema) {
+            if (schema == null) {
+                return null;
+            }
+            Map<String, Object> properties = null;
+            if (schema.getProperties() != null) {
+                properties = new HashMap<>();
+                for (Map.Entry<String, Schema> property : ((Map<String, Schema>) schema.getProperties()).entrySet()) {
+                    properties.put(property.getKey(), shape(property.getValue()));
+                }
+            }
+            Object additionalProperties = schema.getAdditionalProperties();
+            if (additionalProperties instanceof Schema) {
+                additionalProperties = shape((Schema) additionalProperties);
+            }
+            List<Object> items = schema instanceof ArraySchema ? shape(((ArraySchema) schema).getItems()) : null;
+            List<List<Object>> allOf = null;
+            List<List<Object>> oneOf = null;
+            List<List<Object>> anyOf = null;
+            if (schema instanceof ComposedSchema) {
+                ComposedSchema composedSchema = (ComposedSchema) schema;
+                allOf = shape(composedSchema.getAllOf());
+                oneOf = shape(composedSchema.getOneOf());
+                anyOf = shape(composedSchema.getAnyOf());
+            }
+            List<String> required = schema.getRequired() != null ? new ArrayList<>(schema.getRequired()) : null;
+            List<Object> enumValues = schema.getEnum() != null ? new ArrayList<Object>(schema.getEnum()) : null;
+            return Arrays.asList(schema.getTitle(), schema.getMultipleOf(), schema.getMaximum(), schema.getExclusiveMaximum(),
+                    schema.getMinimum(), schema.getExclusiveMinimum(), schema.getMaxLength(), schema.getMinLength(),
+                    schema.getPattern(), schema.getMaxItems(), schema.getMinItems(), schema.getUniqueItems(),
+                    schema.getMaxProperties(), schema.getMinProperties(), required, schema.getType(),
+                    schema.getDescription(), schema.getFormat(), schema.get$ref(), schema.getNullable(), schema.getReadOnly(),
+                    schema.getWriteOnly(), schema.getExample(), schema.getExternalDocs(), schema.getDeprecated(),
+                    schema.getXml(), schema.getExtensions(), schema.getDiscriminator(), enumValues, schema.getDefault(),
+                    shape(schema.getNot()), properties, additionalProperties, items, allOf, oneOf, anyOf);
+        }
+
+        private static List<List<Object>> shape(List<Schema> schemas) {
+            if (schemas == null) {
+                return null;
+            }
+            List<List<Object>> shapes = new ArrayList<>(schemas.size());
+            for (Schema schema : schemas) {
+                shapes.add(shape(schema));
+            }
+            return shapes;
+        }
+
+        /**
+         * Takes a structural copy of the model as it is now, to compare against from then on.
+         */
+        Signature freeze() {
+            shape = shape(model);
+            return this;
+        }
+
+        private List<Object> shape() {
+            if (shape == null) {
+                shape = shape(model);
+            }
+            return shape;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Signature)) {
+                return false;
+            }
+            Signature other = (Signature) o;
+            return hash == other.hash && shape().equals(other.shape());
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+}
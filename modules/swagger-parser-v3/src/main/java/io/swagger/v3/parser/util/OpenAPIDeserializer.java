@@ -1,8 +1,11 @@
 package io.swagger.v3.parser.util;
 
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.node.ArrayNode;
 import com.fasterxml.jackson.databind.node.JsonNodeType;
+import com.fasterxml.jackson.databind.node.MissingNode;
 import com.fasterxml.jackson.databind.node.ObjectNode;
 import com.fasterxml.jackson.databind.node.TextNode;
 import io.swagger.v3.oas.models.Components;
@@ -48,6 +51,7 @@ import io.swagger.v3.parser.core.models.SwaggerParseResult;
 import io.swagger.v3.core.util.Json;
 import org.apache.commons.lang3.StringUtils;
 
+import java.io.IOException;
 import java.math.BigDecimal;
 import java.net.URI;
 import java.net.URISyntaxException;
@@ -113,6 +117,118 @@ public class OpenAPIDeserializer {
         return result;
     }
 
+    /**
+     * Runs the same checks as {@link #deserialize(JsonNode, String)} while reading the document from a
+     * streaming parser. Path items and component entries are read and validated one at a time, so only a
+     * single entry is held in memory. The returned result carries messages only; the model is not built.
+     */
+    public SwaggerParseResult validate(JsonParser parser, String path) {
+        SwaggerParseResult result = new SwaggerParseResult();
+        try {
+            ParseResult rootParse = new ParseResult();
+            ParseResult streamParse = new ParseResult();
+
+            JsonToken token = parser.nextToken();
+            if (token != JsonToken.START_OBJECT) {
+                JsonNode node = token == null ? MissingNode.getInstance() : (JsonNode) parser.readValueAsTree();
+                parseRoot(node, rootParse, path);
+                result.setMessages(rootParse.getMessages());
+                return result;
+            }
+
+            // everything except the bodies of paths and components is small, so keep it as a skeleton tree
+            ObjectNode rootNode = Json.mapper().createObjectNode();
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String key = parser.getCurrentName();
+                token = parser.nextToken();
+                if ("paths".equals(key) && token == JsonToken.START_OBJECT) {
+                    validatePaths(parser, "paths", streamParse);
+                    rootNode.set(key, rootNode.objectNode());
+                } else if ("components".equals(key) && token == JsonToken.START_OBJECT) {
+                    rootNode.set(key, validateComponents(parser, "components", streamParse));
+                } else {
+                    rootNode.set(key, (JsonNode) parser.readValueAsTree());
+                }
+            }
+
+            OpenAPI api = parseRoot(rootNode, rootParse, path);
+            if (api != null) {
+                rootParse.merge(streamParse);
+            }
+            result.setMessages(rootParse.getMessages());
+
+        } catch (Exception e) {
+            result.setMessages(Arrays.asList(e.getMessage()));
+        }
+        return result;
+    }
+
+    protected void validatePaths(JsonParser parser, String location, ParseResult result) throws IOException {
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String pathName = parser.getCurrentName();
+            parser.nextToken();
+            ObjectNode entry = Json.mapper().createObjectNode();
+            entry.set(pathName, (JsonNode) parser.readValueAsTree());
+            getPaths(entry, location, result);
+        }
+    }
+
+    protected ObjectNode validateComponents(JsonParser parser, String location, ParseResult result) throws IOException {
+        ObjectNode components = Json.mapper().createObjectNode();
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String key = parser.getCurrentName();
+            JsonToken token = parser.nextToken();
+            if (COMPONENTS_KEYS.contains(key) && token == JsonToken.START_OBJECT) {
+                String sectionLocation = String.format("%s.%s", location, key);
+                while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                    String name = parser.getCurrentName();
+                    parser.nextToken();
+                    ObjectNode entry = components.objectNode();
+                    entry.set(name, (JsonNode) parser.readValueAsTree());
+                    validateComponent(key, entry, sectionLocation, result);
+                }
+                components.set(key, components.objectNode());
+            } else {
+                components.set(key, (JsonNode) parser.readValueAsTree());
+            }
+        }
+        return components;
+    }
+
+    private void validateComponent(String type, ObjectNode entry, String location, ParseResult result) {
+        switch (type) {
+            case "schemas":
+                getSchemas(entry, location, result);
+                break;
+            case "responses":
+                getResponses(entry, location, result);
+                break;
+            case "parameters":
+                getParameters(entry, location, result);
+                break;
+            case "examples":
+                getExamples(entry, location, result);
+                break;
+            case "requestBodies":
+                getRequestBodies(entry, location, result);
+                break;
+            case "headers":
+                getHeaders(entry, location, result);
+                break;
+            case "securitySchemes":
+                getSecuritySchemes(entry, location, result);
+                break;
+            case "links":
+                getLinks(entry, location, result);
+                break;
+            case "callbacks":
+                getCallbacks(entry, location, result);
+                break;
+            default:
+                break;
+        }
+    }
+
     public OpenAPI parseRoot(JsonNode node, ParseResult result, String path) {
         String location = "";
         OpenAPI openAPI = new OpenAPI();
@@ -289,6 +405,43 @@ public class OpenAPIDeserializer {
         return  components;
     }
 
+    /**
+     * Deserializes a single component or path item of the given type, e.g. the node a ref into an external
+     * document points at, with the same checks applied to inline definitions. Messages are added to
+     * {@code messages} when it is not null. Returns null when {@code expectedType} is not a component type.
+     */
+    public <T> T getComponent(ObjectNode node, Class<T> expectedType, String location, List<String> messages) {
+        ParseResult result = new ParseResult();
+        Object component;
+        if (Schema.class.equals(expectedType)) {
+            component = getSchema(node, location, result);
+        } else if (ApiResponse.class.equals(expectedType)) {
+            component = getResponse(node, location, result);
+        } else if (Parameter.class.equals(expectedType)) {
+            component = getParameter(node, location, result);
+        } else if (RequestBody.class.equals(expectedType)) {
+            component = getRequestBody(node, location, result);
+        } else if (Header.class.equals(expectedType)) {
+            component = getHeader(node, location, result);
+        } else if (Link.class.equals(expectedType)) {
+            component = getLink(node, location, result);
+        } else if (Example.class.equals(expectedType)) {
+            component = getExample(node, location, result);
+        } else if (Callback.class.equals(expectedType)) {
+            component = getCallback(node, location, result);
+        } else if (SecurityScheme.class.equals(expectedType)) {
+            component = getSecurityScheme(node, location, result);
+        } else if (PathItem.class.equals(expectedType)) {
+            component = getPathItem(node, location, result);
+        } else {
+            return null;
+        }
+        if (messages != null) {
+            messages.addAll(result.getMessages());
+        }
+        return expectedType.cast(component);
+    }
+
     public List<Tag> getTagList(ArrayNode obj, String location, ParseResult result) {
         if (obj == null) {
             return null;
@@ -2831,6 +2984,17 @@ public class OpenAPIDeserializer {
           return this.valid;
         }
 
+        public void merge(ParseResult other) {
+            extra.putAll(other.extra);
+            unsupported.putAll(other.unsupported);
+            invalidType.putAll(other.invalidType);
+            missing.addAll(other.missing);
+            warnings.addAll(other.warnings);
+            unique.addAll(other.unique);
+            uniqueTags.addAll(other.uniqueTags);
+            valid = valid && other.valid;
+        }
+
         public List<String> getMessages() {
             List<String> messages = new ArrayList<String>();
             for (Location l : extra.keySet()) {
@@ -0,0 +1,448 @@
+package io.swagger.v3.parser.util;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import io.swagger.v3.core.util.Json;
+import io.swagger.v3.oas.models.Components;
+import io.swagger.v3.oas.models.OpenAPI;
+import io.swagger.v3.oas.models.PathItem;
+import io.swagger.v3.oas.models.Paths;
+import io.swagger.v3.parser.OpenAPIResolver;
+import io.swagger.v3.parser.core.models.AuthorizationValue;
+import io.swagger.v3.parser.core.models.ParseOptions;
+import io.swagger.v3.parser.core.models.SwaggerParseResult;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.Executor;
+
+/**
+ * Publishes the components and path items of an OpenAPI document one at a time, as soon as each one has
+ * been deserialized and (if {@link ParseOptions#isResolve()} is set) its references resolved.
+ *
+ * The {@link Subscriber} and {@link Subscription} contracts mirror {@code java.util.concurrent.Flow}, so
+ * adapting to Flow or Reactive Streams is a one line bridge. Components are published first, since path
+ * items reference them; path items are then deserialized, resolved and published one by one and are not
+ * kept in the model. At most a small buffer of elements is produced ahead of the subscriber's demand.
+ *
+ * The source is read twice: once for everything but the path items, and once more to stream the path items
+ * one at a time, so the paths are never held as a whole. Everything else, components included, is read into
+ * memory. Whether the raw document is held as well depends on the source.
+ *
+ * What the deserializer reports about a path item comes with its element; everything it and the resolver
+ * reported about the document is available from {@link Subscription#getMessages()} once the subscriber is
+ * complete.
+ *
+ * Parsing and delivery run as two tasks on the executor, so it must be able to run both concurrently. If
+ * {@link Subscriber#onNext(Object)} throws, the subscription is cancelled and parsing stops.
+ */
+public class OpenAPIPublisher {
+    static Logger LOGGER = LoggerFactory.getLogger(OpenAPIPublisher.class);
+
+    private static final int BUFFER_SIZE = 16;
+    private static final Object COMPLETE = new Object();
+
+    private final Callable<JsonParser> source;
+    private final String location;
+    private final List<AuthorizationValue> auths;
+    private final ParseOptions options;
+    private final Executor executor;
+
+    /**
+     * @param source opens a new parser over the document each time it is called
+     */
+    public OpenAPIPublisher(Callable<JsonParser> source, String location, List<AuthorizationValue> auths, ParseOptions options, Executor executor) {
+        this.source = source;
+        this.location = location;
+        this.auths = auths;
+        this.options = options;
+        this.executor = executor != null ? executor : runnable -> {
+            Thread thread = new Thread(runnable, "openapi-publisher");
+            thread.setDaemon(true);
+            thread.start();
+        };
+    }
+
+    public void subscribe(Subscriber<? super Element> subscriber) {
+        if (subscriber == null) {
+            throw new NullPointerException("subscriber");
+        }
+        final ElementSubscription subscription = new ElementSubscription(subscriber);
+        subscriber.onSubscribe(subscription);
+        executor.execute(subscription::produce);
+        executor.execute(subscription::deliver);
+    }
+
+    private void publish(ElementSubscription subscription) throws Exception {
+        // deserialize everything but the path items, which are streamed one at a time below
+        ObjectNode skeleton = Json.mapper().createObjectNode();
+        boolean hasPaths = false;
+        try (JsonParser parser = source.call()) {
+            if (parser == null || parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new IllegalStateException("unable to read location `" + location + "`");
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String key = parser.getCurrentName();
+                JsonToken token = parser.nextToken();
+                if ("paths".equals(key) && token == JsonToken.START_OBJECT) {
+                    parser.skipChildren();
+                    skeleton.set(key, skeleton.objectNode());
+                    hasPaths = true;
+                } else {
+                    skeleton.set(key, (JsonNode) parser.readValueAsTree());
+                }
+            }
+        }
+
+        OpenAPIDeserializer deserializer = new OpenAPIDeserializer();
+        SwaggerParseResult parsed = deserializer.deserialize(skeleton, location);
+        OpenAPI openAPI = parsed.getOpenAPI();
+        if (openAPI == null) {
+            throw new IllegalStateException("unable to read location `" + location + "`: " + parsed.getMessages());
+        }
+        subscription.addMessages(parsed.getMessages());
+
+        boolean resolve = options != null && options.isResolve();
+        OpenAPIResolver resolver = new OpenAPIResolver(openAPI, auths, location, OpenAPIResolver.Settings.fromParseOptions(options));
+        if (resolve) {
+            resolver.resolveComponents();
+        }
+        Set<String> published = new HashSet<>();
+        publishComponents(openAPI, published, subscription);
+
+        if (hasPaths) {
+            try (JsonParser parser = source.call()) {
+                publishPaths(parser, deserializer, openAPI, resolver, published, subscription);
+            }
+        }
+        if (resolve) {
+            subscription.addMessages(resolver.getMessages());
+        }
+    }
+
+    private void publishPaths(JsonParser parser, OpenAPIDeserializer deserializer, OpenAPI openAPI, OpenAPIResolver resolver,
+                              Set<String> published, ElementSubscription subscription) throws Exception {
+        boolean resolve = options != null && options.isResolve();
+        parser.nextToken();
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String key = parser.getCurrentName();
+            if (parser.nextToken() != JsonToken.START_OBJECT || !"paths".equals(key)) {
+                parser.skipChildren();
+                continue;
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String pathName = parser.getCurrentName();
+                parser.nextToken();
+                if (pathName.startsWith("x-")) {
+                    parser.skipChildren();
+                    continue;
+                }
+                ObjectNode entry = Json.mapper().createObjectNode();
+                entry.set(pathName, (JsonNode) parser.readValueAsTree());
+                OpenAPIDeserializer.ParseResult result = new OpenAPIDeserializer.ParseResult();
+                Paths paths = deserializer.getPaths(entry, "paths", result);
+                subscription.addMessages(result.getMessages());
+                PathItem pathItem = paths.get(pathName);
+                if (pathItem == null) {
+                    continue;
+                }
+                if (resolve) {
+                    pathItem = resolver.resolvePath(pathName, pathItem);
+                    if (openAPI.getPaths() != null) {
+                        openAPI.getPaths().remove(pathName);
+                    }
+                    // external refs of this path may have added components
+                    if (countComponents(openAPI) > published.size()) {
+                        resolver.resolveComponents();
+                        publishComponents(openAPI, published, subscription);
+                    }
+                }
+                subscription.emit(new Element(Element.Type.PATH, pathName, pathItem, result.getMessages()));
+            }
+        }
+    }
+
+    private void publishComponents(OpenAPI openAPI, Set<String> published, ElementSubscription subscription) throws InterruptedException {
+        Components components = openAPI.getComponents();
+        if (components == null) {
+            return;
+        }
+        publishComponents(Element.Type.SCHEMA, components.getSchemas(), published, subscription);
+        publishComponents(Element.Type.RESPONSE, components.getResponses(), published, subscription);
+        publishComponents(Element.Type.REQUEST_BODY, components.getRequestBodies(), published, subscription);
+        publishComponents(Element.Type.PARAMETER, components.getParameters(), published, subscription);
+        publishComponents(Element.Type.HEADER, components.getHeaders(), published, subscription);
+        publishComponents(Element.Type.EXAMPLE, components.getExamples(), published, subscription);
+        publishComponents(Element.Type.LINK, components.getLinks(), published, subscription);
+        publishComponents(Element.Type.CALLBACK, components.getCallbacks(), published, subscription);
+        publishComponents(Element.Type.SECURITY_SCHEME, components.getSecuritySchemes(), published, subscription);
+    }
+
+    private void publishComponents(Element.Type type, Map<String, ?> map, Set<String> published, ElementSubscription subscription) throws InterruptedException {
+        if (map == null) {
+            return;
+        }
+        for (Map.Entry<String, ?> entry : map.entrySet()) {
+            if (published.add(type + "/" + entry.getKey())) {
+                subscription.emit(new Element(type, entry.getKey(), entry.getValue()));
+            }
+        }
+    }
+
+    private int countComponents(OpenAPI openAPI) {
+        Components components = openAPI.getComponents();
+        if (components == null) {
+            return 0;
+        }
+        return size(components.getSchemas()) + size(components.getResponses()) + size(components.getRequestBodies())
+                + size(components.getParameters()) + size(components.getHeaders()) + size(components.getExamples())
+                + size(components.getLinks()) + size(components.getCallbacks()) + size(components.getSecuritySchemes());
+    }
+
+    private int size(Map<String, ?> map) {
+        return map == null ? 0 : map.size();
+    }
+
+    private final class ElementSubscription implements Subscription {
+        private final Subscriber<? super Element> subscriber;
+        // guarded by lock, like everything below but the messages
+        private final Deque<Object> queue = new ArrayDeque<>();
+        private final Object lock = new Object();
+        private final List<String> messages = Collections.synchronizedList(new ArrayList<>());
+        private long demand;
+        private Throwable invalidRequest;
+        private boolean cancelled;
+
+        ElementSubscription(Subscriber<? super Element> subscriber) {
+            this.subscriber = subscriber;
+        }
+
+        @Override
+        public void request(long n) {
+            synchronized (lock) {
+                if (n <= 0) {
+                    invalidRequest = new IllegalArgumentException("non-positive subscription request: " + n);
+                } else {
+                    demand += n;
+                    if (demand < 0) {
+                        demand = Long.MAX_VALUE;
+                    }
+                }
+                lock.notifyAll();
+            }
+        }
+
+        @Override
+        public void cancel() {
+            synchronized (lock) {
+                cancelled = true;
+                queue.clear();
+                lock.notifyAll();
+            }
+        }
+
+        @Override
+        public List<String> getMessages() {
+            synchronized (messages) {
+                return new ArrayList<>(messages);
+            }
+        }
+
+        void addMessages(List<String> messages) {
+            if (messages != null) {
+                this.messages.addAll(messages);
+            }
+        }
+
+        /**
+         * Queues the element, waiting while the buffer is full. The final signal is queued right away.
+         */
+        void emit(Object element) throws InterruptedException {
+            synchronized (lock) {
+                while (queue.size() >= BUFFER_SIZE && !cancelled && !isFinal(element)) {
+                    lock.wait();
+                }
+                if (cancelled) {
+                    throw new CancellationException();
+                }
+                queue.add(element);
+                lock.notifyAll();
+            }
+        }
+
+        void produce() {
+            Object last = COMPLETE;
+            try {
+                publish(this);
+            } catch (CancellationException e) {
+                return;
+            } catch (Throwable t) {
+                LOGGER.warn("Exception while publishing " + location, t);
+                last = new Failure(t);
+            }
+            try {
+                emit(last);
+            } catch (InterruptedException | CancellationException e) {
+                // nobody is listening anymore
+            }
+        }
+
+        void deliver() {
+            try {
+                while (true) {
+                    Object next;
+                    Throwable error = null;
+                    synchronized (lock) {
+                        // elements wait for demand, the final signal doesn't
+                        while (!cancelled && invalidRequest == null
+                                && (queue.isEmpty() || demand == 0 && !isFinal(queue.peek()))) {
+                            lock.wait();
+                        }
+                        if (cancelled) {
+                            return;
+                        }
+                        if (invalidRequest != null) {
+                            error = invalidRequest;
+                            cancelled = true;
+                            queue.clear();
+                            next = null;
+                        } else {
+                            next = queue.poll();
+                            if (!isFinal(next)) {
+                                demand--;
+                            }
+                        }
+                        // there is room in the buffer again, or the producer has to stop
+                        lock.notifyAll();
+                    }
+                    if (error != null) {
+                        subscriber.onError(error);
+                        return;
+                    }
+                    if (next == COMPLETE) {
+                        subscriber.onComplete();
+                        return;
+                    }
+                    if (next instanceof Failure) {
+                        subscriber.onError(((Failure) next).error);
+                        return;
+                    }
+                    try {
+                        subscriber.onNext((Element) next);
+                    } catch (Throwable t) {
+                        // a subscriber that throws is considered to have cancelled
+                        LOGGER.warn("Subscriber of " + location + " failed, cancelling", t);
+                        cancel();
+                        return;
+                    }
+                }
+            } catch (InterruptedException e) {
+                cancel();
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        private boolean isFinal(Object element) {
+            return element == COMPLETE || element instanceof Failure;
+        }
+    }
+
+    private static final class Failure {
+        private final Throwable error;
+
+        Failure(Throwable error) {
+            this.error = error;
+        }
+    }
+
+    /**
+     * A deserialized (and possibly resolved) component or path item.
+     */
+    public static class Element {
+        public enum Type {
+            SCHEMA, RESPONSE, REQUEST_BODY, PARAMETER, HEADER, EXAMPLE, LINK, CALLBACK, SECURITY_SCHEME, PATH
+        }
+
+        private final Type type;
+        private final String name;
+        private final Object value;
+        private final List<String> messages;
+
+        public Element(Type type, String name, Object value) {
+            this(type, name, value, null);
+        }
+
+        public Element(Type type, String name, Object value, List<String> messages) {
+            this.type = type;
+            this.name = name;
+            this.value = value;
+            this.messages = messages != null ? messages : Collections.emptyList();
+        }
+
+        public Type getType() {
+            return type;
+        }
+
+        /**
+         * The component name, or the path for {@link Type#PATH} elements.
+         */
+        public String getName() {
+            return name;
+        }
+
+        public Object getValue() {
+            return value;
+        }
+
+        public <T> T getValue(Class<T> expectedType) {
+            return expectedType.cast(value);
+        }
+
+        /**
+         * What the deserializer reported about this element; only path items are deserialized on their own.
+         */
+        public List<String> getMessages() {
+            return messages;
+        }
+    }
+
+    /**
+     * Same contract as {@code java.util.concurrent.Flow.Subscriber}.
+     */
+    public interface Subscriber<T> {
+        void onSubscribe(Subscription subscription);
+
+        void onNext(T item);
+
+        void onError(Throwable throwable);
+
+        void onComplete();
+    }
+
+    /**
+     * Same contract as {@code java.util.concurrent.Flow.Subscription}, plus the messages about the document.
+     */
+    public interface Subscription {
+        void request(long n);
+
+        void cancel();
+
+        /**
+         * What the deserializer and resolver reported so far, for the whole document. Complete once
+         * {@link Subscriber#onComplete()} has been called.
+         */
+        List<String> getMessages();
+    }
+}
@@ -0,0 +1,472 @@
+package io.swagger.v3.parser.util;
+
+import io.swagger.v3.oas.models.Components;
+import io.swagger.v3.oas.models.OpenAPI;
+import io.swagger.v3.oas.models.Operation;
+import io.swagger.v3.oas.models.PathItem;
+import io.swagger.v3.oas.models.callbacks.Callback;
+import io.swagger.v3.oas.models.examples.Example;
+import io.swagger.v3.oas.models.headers.Header;
+import io.swagger.v3.oas.models.links.Link;
+import io.swagger.v3.oas.models.media.ArraySchema;
+import io.swagger.v3.oas.models.media.ComposedSchema;
+import io.swagger.v3.oas.models.media.Content;
+import io.swagger.v3.oas.models.media.Encoding;
+import io.swagger.v3.oas.models.media.MediaType;
+import io.swagger.v3.oas.models.media.Schema;
+import io.swagger.v3.oas.models.parameters.Parameter;
+import io.swagger.v3.oas.models.parameters.RequestBody;
+import io.swagger.v3.oas.models.responses.ApiResponse;
+import io.swagger.v3.oas.models.security.SecurityScheme;
+import io.swagger.v3.parser.models.Ref;
+import io.swagger.v3.parser.models.RefType;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The graph of references between the path items and components of an OpenAPI model.
+ *
+ * Nodes are the internal refs of path items ({@code #/paths/...}) and components ({@code #/components/...}),
+ * plus the refs they point at; refs into other documents are nodes of their own. An edge goes from a node to
+ * every ref found anywhere inside it, collected by walking the model rather than serializing it; refs in
+ * extensions are not followed. Strongly connected components are computed once, when the graph is built, and
+ * are listed dependencies first.
+ */
+public class RefGraph {
+
+    private final Map<String, Set<String>> edges = new LinkedHashMap<>();
+    private final Set<String> declaredNodes = new HashSet<>();
+    private final List<Set<String>> stronglyConnectedComponents = new ArrayList<>();
+    private final Set<String> cyclicNodes = new LinkedHashSet<>();
+
+    public static RefGraph build(OpenAPI openAPI) {
+        RefGraph graph = new RefGraph();
+        if (openAPI.getPaths() != null) {
+            for (Map.Entry<String, PathItem> path : openAPI.getPaths().entrySet()) {
+                graph.addNode(pathNode(path.getKey()), path.getValue());
+            }
+        }
+        Components components = openAPI.getComponents();
+        if (components != null) {
+            graph.addNodes("schemas", components.getSchemas());
+            graph.addNodes("responses", components.getResponses());
+            graph.addNodes("parameters", components.getParameters());
+            graph.addNodes("examples", components.getExamples());
+            graph.addNodes("requestBodies", components.getRequestBodies());
+            graph.addNodes("headers", components.getHeaders());
+            graph.addNodes("securitySchemes", components.getSecuritySchemes());
+            graph.addNodes("links", components.getLinks());
+            graph.addNodes("callbacks", components.getCallbacks());
+        }
+        graph.computeStronglyConnectedComponents();
+        return graph;
+    }
+
+    private void addNodes(String type, Map<String, ?> map) {
+        if (map == null) {
+            return;
+        }
+        for (Map.Entry<String, ?> entry : map.entrySet()) {
+            addNode(componentNode(type, entry.getKey()), entry.getValue());
+        }
+    }
+
+    private void addNode(String node, Object value) {
+        declaredNodes.add(node);
+        Set<String> references = edges.computeIfAbsent(node, k -> new LinkedHashSet<>());
+        if (value == null) {
+            return;
+        }
+        new RefCollector(references).collect(value);
+        for (String reference : references) {
+            edges.computeIfAbsent(reference, k -> new LinkedHashSet<>());
+        }
+    }
+
+    /**
+     * Tarjan's algorithm, with an explicit stack so that long reference chains can't overflow the call stack.
+     * Components are found, and listed, after every component they reference.
+     */
+    private void computeStronglyConnectedComponents() {
+        final Map<String, Integer> index = new HashMap<>();
+        final Map<String, Integer> lowLink = new HashMap<>();
+        final Deque<String> stack = new ArrayDeque<>();
+        final Set<String> onStack = new HashSet<>();
+        final Deque<Frame> frames = new ArrayDeque<>();
+
+        for (String root : edges.keySet()) {
+            if (index.containsKey(root)) {
+                continue;
+            }
+            frames.push(new Frame(root, edges.get(root).iterator()));
+            index.put(root, index.size());
+            lowLink.put(root, index.get(root));
+            stack.push(root);
+            onStack.add(root);
+
+            while (!frames.isEmpty()) {
+                final Frame frame = frames.peek();
+                if (frame.references.hasNext()) {
+                    final String reference = frame.references.next();
+                    if (!index.containsKey(reference)) {
+                        index.put(reference, index.size());
+                        lowLink.put(reference, index.get(reference));
+                        stack.push(reference);
+                        onStack.add(reference);
+                        frames.push(new Frame(reference, edges.get(reference).iterator()));
+                    } else if (onStack.contains(reference)) {
+                        lowLink.put(frame.node, Math.min(lowLink.get(frame.node), index.get(reference)));
+                    }
+                    continue;
+                }
+                frames.pop();
+                if (!frames.isEmpty()) {
+                    final String parent = frames.peek().node;
+                    lowLink.put(parent, Math.min(lowLink.get(parent), lowLink.get(frame.node)));
+                }
+                if (lowLink.get(frame.node).equals(index.get(frame.node))) {
+                    final Set<String> component = new LinkedHashSet<>();
+                    String member;
+                    do {
+                        member = stack.pop();
+                        onStack.remove(member);
+                        component.add(member);
+                    } while (!member.equals(frame.node));
+                    stronglyConnectedComponents.add(Collections.unmodifiableSet(component));
+                    if (component.size() > 1 || edges.get(frame.node).contains(frame.node)) {
+                        cyclicNodes.addAll(component);
+                    }
+                }
+            }
+        }
+    }
+
+    public Set<String> getNodes() {
+        return Collections.unmodifiableSet(edges.keySet());
+    }
+
+    /**
+     * The refs found inside the given node, or an empty set if it is not part of the graph.
+     */
+    public Set<String> getReferences(String node) {
+        Set<String> references = edges.get(node);
+        return references != null ? Collections.unmodifiableSet(references) : Collections.emptySet();
+    }
+
+    /**
+     * The strongly connected components of the graph, each listed after all components it references.
+     */
+    public List<Set<String>> getStronglyConnectedComponents() {
+        return Collections.unmodifiableList(stronglyConnectedComponents);
+    }
+
+    /**
+     * All nodes, each after every node it references, except for references within a cycle.
+     */
+    public List<String> getResolutionOrder() {
+        List<String> order = new ArrayList<>(edges.size());
+        for (Set<String> component : stronglyConnectedComponents) {
+            order.addAll(component);
+        }
+        return order;
+    }
+
+    /**
+     * The nodes that are part of a reference cycle, including nodes that reference themselves.
+     */
+    public Set<String> getCyclicNodes() {
+        return Collections.unmodifiableSet(cyclicNodes);
+    }
+
+    public boolean isCyclic(String node) {
+        return cyclicNodes.contains(node);
+    }
+
+    /**
+     * Whether the node is a path item or component of the model, rather than a ref to something that is not.
+     */
+    public boolean isDeclared(String node) {
+        return declaredNodes.contains(node);
+    }
+
+    /**
+     * The node of the path item with the given path.
+     */
+    public static String pathNode(String path) {
+        return RefType.PATH.getInternalPrefix() + escape(path);
+    }
+
+    /**
+     * The node of the component with the given type, like {@code schemas}, and name.
+     */
+    public static String componentNode(String type, String name) {
+        return RefType.COMPONENTS.getInternalPrefix() + type + "/" + escape(name);
+    }
+
+    /**
+     * The other documents referenced from the model.
+     */
+    public Set<String> getDocuments() {
+        Set<String> documents = new LinkedHashSet<>();
+        for (String node : edges.keySet()) {
+            if (node.startsWith("#")) {
+                continue;
+            }
+            try {
+                String file = Ref.of(node).getFile();
+                if (!file.isEmpty()) {
+                    documents.add(file);
+                }
+            } catch (RuntimeException e) {
+                // not a valid ref, so not a document either
+            }
+        }
+        return documents;
+    }
+
+    private static String escape(String name) {
+        return name.replace("~", "~0").replace("/", "~1");
+    }
+
+    /**
+     * Collects the refs found anywhere inside a path item or component. Each object is visited once, so
+     * schemas shared, or made cyclic, by full resolution are walked only once.
+     */
+    private static final class RefCollector {
+        private final Set<String> references;
+        private final Set<Object> visited = Collections.newSetFromMap(new IdentityHashMap<>());
+
+        RefCollector(Set<String> references) {
+            this.references = references;
+        }
+
+        void collect(Object value) {
+            if (value instanceof PathItem) {
+                pathItem((PathItem) value);
+            } else if (value instanceof Schema) {
+                schema((Schema) value);
+            } else if (value instanceof ApiResponse) {
+                response((ApiResponse) value);
+            } else if (value instanceof Parameter) {
+                parameter((Parameter) value);
+            } else if (value instanceof Example) {
+                ref(((Example) value).get$ref());
+            } else if (value instanceof RequestBody) {
+                requestBody((RequestBody) value);
+            } else if (value instanceof Header) {
+                header((Header) value);
+            } else if (value instanceof SecurityScheme) {
+                ref(((SecurityScheme) value).get$ref());
+            } else if (value instanceof Link) {
+                link((Link) value);
+            } else if (value instanceof Callback) {
+                callback((Callback) value);
+            }
+        }
+
+        private void ref(String ref) {
+            if (ref != null) {
+                references.add(ref);
+            }
+        }
+
+        private boolean visit(Object value) {
+            return value != null && visited.add(value);
+        }
+
+        private void pathItem(PathItem pathItem) {
+            if (!visit(pathItem)) {
+                return;
+            }
+            ref(pathItem.get$ref());
+            parameters(pathItem.getParameters());
+            for (Operation operation : pathItem.readOperations()) {
+                parameters(operation.getParameters());
+                requestBody(operation.getRequestBody());
+                if (operation.getResponses() != null) {
+                    for (ApiResponse response : operation.getResponses().values()) {
+                        response(response);
+                    }
+                }
+                if (operation.getCallbacks() != null) {
+                    for (Callback callback : operation.getCallbacks().values()) {
+                        callback(callback);
+                    }
+                }
+            }
+        }
+
+        private void callback(Callback callback) {
+            if (!visit(callback)) {
+                return;
+            }
+            ref(callback.get$ref());
+            for (PathItem pathItem : callback.values()) {
+                pathItem(pathItem);
+            }
+        }
+
+        private void parameters(List<Parameter> parameters) {
+            if (parameters != null) {
+                for (Parameter parameter : parameters) {
+                    parameter(parameter);
+                }
+            }
+        }
+
+        private void parameter(Parameter parameter) {
+            if (!visit(parameter)) {
+                return;
+            }
+            ref(parameter.get$ref());
+            schema(parameter.getSchema());
+            examples(parameter.getExamples());
+            content(parameter.getContent());
+        }
+
+        private void requestBody(RequestBody requestBody) {
+            if (!visit(requestBody)) {
+                return;
+            }
+            ref(requestBody.get$ref());
+            content(requestBody.getContent());
+        }
+
+        private void response(ApiResponse response) {
+            if (!visit(response)) {
+                return;
+            }
+            ref(response.get$ref());
+            headers(response.getHeaders());
+            content(response.getContent());
+            if (response.getLinks() != null) {
+                for (Link link : response.getLinks().values()) {
+                    link(link);
+                }
+            }
+        }
+
+        private void link(Link link) {
+            if (!visit(link)) {
+                return;
+            }
+            ref(link.get$ref());
+            headers(link.getHeaders());
+        }
+
+        private void headers(Map<String, Header> headers) {
+            if (headers != null) {
+                for (Header header : headers.values()) {
+                    header(header);
+                }
+            }
+        }
+
+        private void header(Header header) {
+            if (!visit(header)) {
+                return;
+            }
+            ref(header.get$ref());
+            schema(header.getSchema());
+            examples(header.getExamples());
+            content(header.getContent());
+        }
+
+        private void content(Content content) {
+            if (content == null) {
+                return;
+            }
+            for (MediaType mediaType : content.values()) {
+                if (!visit(mediaType)) {
+                    continue;
+                }
+                schema(mediaType.getSchema());
+                examples(mediaType.getExamples());
+                if (mediaType.getEncoding() != null) {
+                    for (Encoding encoding : mediaType.getEncoding().values()) {
+                        if (encoding != null) {
+                            headers(encoding.getHeaders());
+                        }
+                    }
+                }
+            }
+        }
+
+        private void examples(Map<String, Example> examples) {
+            if (examples != null) {
+                for (Example example : examples.values()) {
+                    if (example != null) {
+                        ref(example.get$ref());
+                    }
+                }
+            }
+        }
+
+        private void schema(Schema schema) {
+            // iterative, so deeply nested schemas can't overflow the call stack
+            Deque<Schema> pending = new ArrayDeque<>();
+            if (schema != null) {
+                pending.push(schema);
+            }
+            while (!pending.isEmpty()) {
+                Schema current = pending.pop();
+                if (!visit(current)) {
+                    continue;
+                }
+                ref(current.get$ref());
+                if (current.getProperties() != null) {
+                    for (Object property : current.getProperties().values()) {
+                        push(pending, property);
+                    }
+                }
+                push(pending, current.getAdditionalProperties());
+                push(pending, current.getNot());
+                if (current instanceof ArraySchema) {
+                    push(pending, ((ArraySchema) current).getItems());
+                }
+                if (current instanceof ComposedSchema) {
+                    ComposedSchema composed = (ComposedSchema) current;
+                    pushAll(pending, composed.getAllOf());
+                    pushAll(pending, composed.getOneOf());
+                    pushAll(pending, composed.getAnyOf());
+                }
+            }
+        }
+
+        private static void push(Deque<Schema> pending, Object schema) {
+            if (schema instanceof Schema) {
+                pending.push((Schema) schema);
+            }
+        }
+
+        private static void pushAll(Deque<Schema> pending, List<Schema> schemas) {
+            if (schemas != null) {
+                for (Schema schema : schemas) {
+                    push(pending, schema);
+                }
+            }
+        }
+    }
+
+    private static final class Frame {
+        private final String node;
+        private final Iterator<String> references;
+
+        Frame(String node, Iterator<String> references) {
+            this.node = node;
+            this.references = references;
+        }
+    }
+}
@@ -1,6 +1,9 @@
 package io.swagger.v3.parser.util;
 
 import io.swagger.v3.parser.core.models.AuthorizationValue;
+import io.swagger.v3.parser.core.models.ParseBudget;
+import io.swagger.v3.parser.core.models.ParseBudgetExceededException;
+import io.swagger.v3.parser.models.Ref;
 import io.swagger.v3.parser.models.RefFormat;
 import org.apache.commons.io.IOUtils;
 import org.apache.commons.lang3.StringUtils;
@@ -8,6 +11,7 @@ import org.apache.commons.lang3.StringUtils;
 
 
 import java.io.FileInputStream;
+import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.List;
@@ -16,31 +20,7 @@ import java.util.Set;
 public class RefUtils {
 
     public static String computeDefinitionName(String ref) {
-
-        final String[] refParts = ref.split("#/");
-
-        if (refParts.length > 2) {
-            throw new RuntimeException("Invalid ref format: " + ref);
-        }
-
-        final String file = refParts[0];
-        final String definitionPath = refParts.length == 2 ? refParts[1] : null;
-
-
-        String plausibleName;
-
-        if (definitionPath != null) { //the name will come from the last element of the definition path
-            final String[] jsonPathElements = definitionPath.split("/");
-            plausibleName = jsonPathElements[jsonPathElements.length - 1];
-        } else { //no definition path, so we must come up with a name from the file
-            final String[] filePathElements = file.split("/");
-            plausibleName = filePathElements[filePathElements.length - 1];
-
-            final String[] split = plausibleName.split("\\.");
-            plausibleName = split[0];
-        }
-
-        return plausibleName;
+        return Ref.of(ref).getDefinitionName();
     }
 
     public static boolean isAnExternalRefFormat(RefFormat refFormat) {
@@ -48,17 +28,7 @@ public class RefUtils {
     }
 
     public static RefFormat computeRefFormat(String ref) {
-        RefFormat result = RefFormat.INTERNAL;
-        ref = mungedRef(ref);
-        if(ref.startsWith("http")||ref.startsWith("https")) {
-            result = RefFormat.URL;
-        } else if(ref.startsWith("#/")) {
-            result = RefFormat.INTERNAL;
-        } else if(ref.startsWith(".") || ref.startsWith("/") || ref.indexOf("#/") > 0) {
-            result = RefFormat.RELATIVE;
-        }
-
-        return result;
+        return Ref.of(ref).getFormat();
     }
 
     public static String mungedRef(String refString) {
@@ -76,6 +46,16 @@ public class RefUtils {
 
     public static String readExternalUrlRef(String file, RefFormat refFormat, List<AuthorizationValue> auths,
                                             String rootPath) {
+        return readExternalUrlRef(file, refFormat, auths, rootPath, 0);
+    }
+
+    /**
+     * Like {@link #readExternalUrlRef(String, RefFormat, List, String)}, but gives up with a
+     * {@link ParseBudgetExceededException} as soon as the document is known to be larger than {@code maxBytes},
+     * unless that is 0.
+     */
+    public static String readExternalUrlRef(String file, RefFormat refFormat, List<AuthorizationValue> auths,
+                                            String rootPath, long maxBytes) {
 
         if (!RefUtils.isAnExternalRefFormat(refFormat)) {
             throw new RuntimeException("Ref is not external");
@@ -85,13 +65,15 @@ public class RefUtils {
 
         try {
             if (refFormat == RefFormat.URL) {
-                result = RemoteUrl.urlToString(file, auths);
+                result = readUrl(file, auths, maxBytes);
             } else {
                 //its assumed to be a relative ref
                 String url = buildUrl(rootPath, file);
 
-                return readExternalRef(url, RefFormat.URL, auths, null);
+                return readExternalRef(url, RefFormat.URL, auths, null, maxBytes);
             }
+        } catch (ParseBudgetExceededException e) {
+            throw e;
         } catch (Exception e) {
             throw new RuntimeException("Unable to load " + refFormat + " ref: " + file, e);
         }
@@ -144,6 +126,16 @@ public class RefUtils {
 
     public static String readExternalRef(String file, RefFormat refFormat, List<AuthorizationValue> auths,
                                          Path parentDirectory) {
+        return readExternalRef(file, refFormat, auths, parentDirectory, 0);
+    }
+
+    /**
+     * Like {@link #readExternalRef(String, RefFormat, List, Path)}, but gives up with a
+     * {@link ParseBudgetExceededException} as soon as the document is known to be larger than {@code maxBytes},
+     * unless that is 0. Local files are checked by their size before they are read.
+     */
+    public static String readExternalRef(String file, RefFormat refFormat, List<AuthorizationValue> auths,
+                                         Path parentDirectory, long maxBytes) {
 
         if (!RefUtils.isAnExternalRefFormat(refFormat)) {
             throw new RuntimeException("Ref is not external");
@@ -153,12 +145,13 @@ public class RefUtils {
 
         try {
             if (refFormat == RefFormat.URL) {
-                result = RemoteUrl.urlToString(file, auths);
+                result = readUrl(file, auths, maxBytes);
             } else {
                 //its assumed to be a relative file ref
                 final Path pathToUse = parentDirectory.resolve(file).normalize();
 
                 if(Files.exists(pathToUse)) {
+                    checkSize(pathToUse, maxBytes, file);
                     result = IOUtils.toString(new FileInputStream(pathToUse.toFile()), "UTF-8");
                 } else {
                     String url = file;
@@ -170,6 +163,7 @@ public class RefUtils {
                     final Path pathToUse2 = parentDirectory.resolve(url).normalize();
 
                     if(Files.exists(pathToUse2)) {
+                        checkSize(pathToUse2, maxBytes, file);
                         result = IOUtils.toString(new FileInputStream(pathToUse2.toFile()), "UTF-8");
                     }
                 }
@@ -179,6 +173,8 @@ public class RefUtils {
 
 
             }
+        } catch (ParseBudgetExceededException e) {
+            throw e;
         } catch (Exception e) {
             throw new RuntimeException("Unable to load " + refFormat + " ref: " + file + " path: "+parentDirectory, e);
         }
@@ -186,4 +182,18 @@ public class RefUtils {
         return result;
 
     }
-}
\ No newline at end of file
+
+    private static void checkSize(Path path, long maxBytes, String file) throws IOException {
+        if (maxBytes > 0) {
+            ParseBudget.check(ParseBudget.Limit.INPUT_BYTES, maxBytes, Files.size(path), file);
+        }
+    }
+
+    private static String readUrl(String url, List<AuthorizationValue> auths, long maxBytes) throws Exception {
+        // the plain read stays the one callers (and their mocks) see unless a limit is set
+        if (maxBytes > 0) {
+            return RemoteUrl.urlToString(url, auths, maxBytes);
+        }
+        return RemoteUrl.urlToString(url, auths);
+    }
+}
@@ -1,6 +1,9 @@
 package io.swagger.v3.parser.util;
 
 import io.swagger.v3.parser.core.models.AuthorizationValue;
+import io.swagger.v3.parser.core.models.CancellationToken;
+import io.swagger.v3.parser.core.models.ParseBudget;
+import io.swagger.v3.parser.core.models.ParseBudgetExceededException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -35,6 +38,7 @@ public class RemoteUrl {
     private static final Charset UTF_8 = StandardCharsets.UTF_8;
     private static final String ACCEPT_HEADER_VALUE = "application/json, application/yaml, */*";
     private static final String USER_AGENT_HEADER_VALUE = "Apache-HttpClient/Swagger";
+    private static final ThreadLocal<CancellationToken> CANCELLATION_TOKEN = new ThreadLocal<>();
 
     private static ConnectionConfigurator createConnectionConfigurator() {
         if (Boolean.parseBoolean(System.getProperty(TRUST_ALL))) {
@@ -104,12 +108,39 @@ public class RemoteUrl {
     }
 
     public static String urlToString(String url, List<AuthorizationValue> auths) throws Exception {
+        return urlToString(url, auths, 0);
+    }
+
+    /**
+     * Makes the reads of the current thread stop once the token is cancelled or its deadline passes, until
+     * another token, or null, is bound. Returns the token bound before, so that callers can restore it.
+     */
+    public static CancellationToken bindCancellationToken(CancellationToken cancellationToken) {
+        final CancellationToken previous = CANCELLATION_TOKEN.get();
+        if (cancellationToken != null) {
+            CANCELLATION_TOKEN.set(cancellationToken);
+        } else {
+            CANCELLATION_TOKEN.remove();
+        }
+        return previous;
+    }
+
+    /**
+     * Like {@link #urlToString(String, List)}, but gives up with a {@link ParseBudgetExceededException} as soon
+     * as the document is known to be larger than {@code maxBytes}, unless that is 0.
+     */
+    public static String urlToString(String url, List<AuthorizationValue> auths, long maxBytes) throws Exception {
         InputStream is = null;
         BufferedReader br = null;
+        final CancellationToken cancellationToken = CANCELLATION_TOKEN.get();
+        final List<Runnable> disconnects = new ArrayList<>();
 
         try {
             URLConnection conn;
             do {
+                if (cancellationToken != null) {
+                    cancellationToken.throwIfCancelled();
+                }
                 final URL inUrl = new URL(cleanUrl(url));
                 final List<AuthorizationValue> query = new ArrayList<>();
                 final List<AuthorizationValue> header = new ArrayList<>();
@@ -138,6 +169,9 @@ public class RemoteUrl {
                     conn = inUrl.openConnection();
                 }
                 CONNECTION_CONFIGURATOR.process(conn);
+                if (cancellationToken != null) {
+                    applyCancellation(conn, cancellationToken, disconnects);
+                }
                 for (AuthorizationValue item : header) {
                     conn.setRequestProperty(item.getKeyName(), item.getValue());
                 }
@@ -147,13 +181,23 @@ public class RemoteUrl {
                 conn.connect();
                 url = ((HttpURLConnection) conn).getHeaderField("Location");
             } while (301 == ((HttpURLConnection) conn).getResponseCode());
+            if (maxBytes > 0) {
+                ParseBudget.check(ParseBudget.Limit.INPUT_BYTES, maxBytes, conn.getContentLengthLong(), conn.getURL().toString());
+            }
             InputStream in = conn.getInputStream();
 
             StringBuilder contents = new StringBuilder();
 
             BufferedReader input = new BufferedReader(new InputStreamReader(in, UTF_8));
 
+            // the first pass of the loop reads nothing
+            long read = -1;
             for (int i = 0; i != -1; i = input.read()) {
+                // every char took at least one byte
+                if (maxBytes > 0 && ++read > maxBytes) {
+                    in.close();
+                    ParseBudget.check(ParseBudget.Limit.INPUT_BYTES, maxBytes, read, conn.getURL().toString());
+                }
                 char c = (char) i;
                 if (!Character.isISOControl(c)) {
                     contents.append((char) i);
@@ -171,10 +215,19 @@ public class RemoteUrl {
             LOGGER.warn("**** you may want to run with -Djsse.enableSNIExtension=false\n\n");
             LOGGER.error("unable to read", e);
             throw e;
+        } catch (ParseBudgetExceededException e) {
+            throw e;
         } catch (Exception e) {
+            if (cancellationToken != null && cancellationToken.isCancelled()) {
+                // most likely disconnected by the token
+                cancellationToken.throwIfCancelled();
+            }
             LOGGER.error("unable to read", e);
             throw e;
         } finally {
+            for (Runnable disconnect : disconnects) {
+                cancellationToken.removeListener(disconnect);
+            }
             if (is != null) {
                 is.close();
             }
@@ -184,6 +237,25 @@ public class RemoteUrl {
         }
     }
 
+    private static void applyCancellation(URLConnection conn, CancellationToken cancellationToken, List<Runnable> disconnects) {
+        final long remaining = cancellationToken.getRemainingMillis();
+        if (remaining < Integer.MAX_VALUE) {
+            // 0 would mean no timeout at all
+            final int timeout = (int) Math.max(1, remaining);
+            if (conn.getConnectTimeout() == 0 || conn.getConnectTimeout() > timeout) {
+                conn.setConnectTimeout(timeout);
+            }
+            if (conn.getReadTimeout() == 0 || conn.getReadTimeout() > timeout) {
+                conn.setReadTimeout(timeout);
+            }
+        }
+        if (conn instanceof HttpURLConnection) {
+            final Runnable disconnect = ((HttpURLConnection) conn)::disconnect;
+            disconnects.add(disconnect);
+            cancellationToken.addListener(disconnect);
+        }
+    }
+
     private static void appendValue(URL url, AuthorizationValue value, Collection<AuthorizationValue> to) {
         if (value instanceof ManagedValue) {
             if (!((ManagedValue) value).process(url)) {
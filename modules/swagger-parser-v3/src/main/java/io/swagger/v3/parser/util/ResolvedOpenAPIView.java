@@ -0,0 +1,156 @@
+package io.swagger.v3.parser.util;
+
+import io.swagger.v3.oas.models.Components;
+import io.swagger.v3.oas.models.OpenAPI;
+import io.swagger.v3.oas.models.Operation;
+import io.swagger.v3.oas.models.PathItem;
+import io.swagger.v3.oas.models.media.Schema;
+import io.swagger.v3.oas.models.parameters.Parameter;
+import io.swagger.v3.parser.models.RefType;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * A fully resolved view of an OpenAPI model that only resolves what is asked for.
+ *
+ * Where {@link ResolverFully#resolveFully(OpenAPI)} inlines the schemas of every operation up front, this
+ * resolves an operation, component parameter or component schema the first time it is fetched and returns
+ * the same instance afterwards. The model should have been parsed with {@code resolve} set but not
+ * {@code resolveFully}; like {@code resolveFully}, the view resolves the model in place and everything it
+ * returns has the shape {@code resolveFully} gives it. Within a reference cycle, which schema is left as a
+ * {@code $ref} depends on the order schemas are met in, so it can differ from an eager resolution.
+ *
+ * Instances are safe to use from several threads; fetches are serialized.
+ */
+public class ResolvedOpenAPIView {
+
+    private final OpenAPI openAPI;
+    private final ResolverFully resolverFully;
+
+    private final Set<Operation> resolvedOperations = Collections.newSetFromMap(new IdentityHashMap<>());
+    private final Map<String, Parameter> resolvedParameters = new HashMap<>();
+    private final Map<String, Schema> resolvedSchemas = new HashMap<>();
+
+    public ResolvedOpenAPIView(OpenAPI openAPI) {
+        this(openAPI, new ResolverFully());
+    }
+
+    /**
+     * @param resolverFully resolves the view, with its settings; it must not be used for anything else
+     */
+    public ResolvedOpenAPIView(OpenAPI openAPI, ResolverFully resolverFully) {
+        this.openAPI = openAPI;
+        this.resolverFully = resolverFully;
+        resolverFully.setComponents(openAPI.getComponents());
+    }
+
+    /**
+     * The model the view resolves; anything not fetched through the view yet is still unresolved.
+     */
+    public OpenAPI getOpenAPI() {
+        return openAPI;
+    }
+
+    /**
+     * The path item, with all its operations resolved, or null if there is no such path.
+     */
+    public synchronized PathItem getPathItem(String path) {
+        PathItem pathItem = openAPI.getPaths() != null ? openAPI.getPaths().get(path) : null;
+        if (pathItem == null) {
+            return null;
+        }
+        for (Operation operation : pathItem.readOperations()) {
+            resolve(operation);
+        }
+        return pathItem;
+    }
+
+    /**
+     * The resolved operation, or null if the path has no operation for the method.
+     */
+    public synchronized Operation getOperation(String path, PathItem.HttpMethod method) {
+        PathItem pathItem = openAPI.getPaths() != null ? openAPI.getPaths().get(path) : null;
+        if (pathItem == null) {
+            return null;
+        }
+        return resolve(pathItem.readOperationsMap().get(method));
+    }
+
+    /**
+     * The resolved operation with the given operationId, or null if there is none.
+     */
+    public synchronized Operation getOperation(String operationId) {
+        if (openAPI.getPaths() == null || operationId == null) {
+            return null;
+        }
+        for (PathItem pathItem : openAPI.getPaths().values()) {
+            for (Operation operation : pathItem.readOperations()) {
+                if (operationId.equals(operation.getOperationId())) {
+                    return resolve(operation);
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * The resolved parameter declared in the components with the given name, or null if there is none.
+     */
+    public synchronized Parameter getParameter(String name) {
+        Parameter parameter = resolvedParameters.get(name);
+        if (parameter != null) {
+            return parameter;
+        }
+        Components components = openAPI.getComponents();
+        if (components == null || components.getParameters() == null) {
+            return null;
+        }
+        parameter = components.getParameters().get(name);
+        if (parameter == null) {
+            return null;
+        }
+        if (parameter.get$ref() != null) {
+            parameter = resolverFully.resolveParameter(parameter);
+        }
+        resolverFully.resolveParameterSchemas(parameter);
+        resolvedParameters.put(name, parameter);
+        return parameter;
+    }
+
+    /**
+     * The schema declared in the components with the given name, resolved the way a ref to it is, or null if
+     * there is none.
+     */
+    public synchronized Schema getSchema(String name) {
+        Schema schema = resolvedSchemas.get(name);
+        if (schema != null) {
+            return schema;
+        }
+        Components components = openAPI.getComponents();
+        if (components == null || components.getSchemas() == null || !components.getSchemas().containsKey(name)) {
+            return null;
+        }
+        schema = resolverFully.resolveSchema(new Schema().$ref(RefType.SCHEMAS.getInternalPrefix() + name));
+        resolvedSchemas.put(name, schema);
+        return schema;
+    }
+
+    private Operation resolve(Operation operation) {
+        if (operation != null && resolvedOperations.add(operation)) {
+            boolean resolved = false;
+            try {
+                resolverFully.resolveOperation(operation);
+                resolved = true;
+            } finally {
+                if (!resolved) {
+                    resolvedOperations.remove(operation);
+                }
+            }
+        }
+        return operation;
+    }
+}
@@ -18,16 +18,27 @@ import io.swagger.v3.oas.models.parameters.Parameter;
 import io.swagger.v3.oas.models.parameters.RequestBody;
 import io.swagger.v3.oas.models.responses.ApiResponse;
 import io.swagger.v3.oas.models.responses.ApiResponses;
+import io.swagger.v3.parser.core.models.CancellationToken;
+import io.swagger.v3.parser.core.models.ParseBudget;
 import io.swagger.v3.parser.models.RefFormat;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.stream.Collectors;
 
 import static io.swagger.v3.parser.util.RefUtils.computeDefinitionName;
@@ -50,16 +61,71 @@ public class ResolverFully {
     }
 
     private Map<String, Schema> schemas;
-    private Map<String, Schema> resolvedModels = new HashMap<>();
+    // fully resolved schemas by the full ref pointing at them
+    private Map<String, Schema> resolvedRefs = new ConcurrentHashMap<>();
+    // every schema met, component or inline, and what it resolved to; the ref standing in for it while in progress
+    private Map<Schema, Schema> resolvedSchemas = new IdentityHashMap<>();
+    // replaces resolvedSchemas while paths are resolved in parallel
+    private volatile ConcurrentMap<IdentityKey, Resolution> concurrentResolutions;
+    // components shared between paths, resolved before the paths are resolved in parallel, and only read after
+    private Set<Object> preResolved = Collections.newSetFromMap(new IdentityHashMap<>());
+    // set when the calling thread fails while paths are resolved in parallel, so that the workers stop
+    private volatile boolean parallelAborted;
     private Map<String, Example> examples;
     private Map<String, Parameter> parameters;
     private Map<String, RequestBody> requestBodies;
     private Map<String, Header> headers;
     private Map<String, Link> links;
-    private Map<String, Schema> resolvedProperties = new HashMap<>();
+    private long maxExpansion;
+    private final AtomicLong expansion = new AtomicLong();
+    private CancellationToken cancellationToken;
+    private ForkJoinPool forkJoinPool;
+
+    /**
+     * Limits the number of schemas visited while resolving, counting a schema each time a ref to it is
+     * expanded; 0 means no limit. Going over it throws a
+     * {@link io.swagger.v3.parser.core.models.ParseBudgetExceededException}.
+     */
+    public void setMaxExpansion(long maxExpansion) {
+        this.maxExpansion = maxExpansion;
+    }
+
+    /**
+     * Makes the resolution stop with a {@link io.swagger.v3.parser.core.models.ParseCancelledException} once the
+     * token is cancelled or its deadline passes.
+     */
+    public void setCancellationToken(CancellationToken cancellationToken) {
+        this.cancellationToken = cancellationToken;
+    }
+
+    /**
+     * If set, paths are resolved in parallel on this pool. Paths that reach a reference cycle, whose result
+     * depends on the order schemas are met in, are still resolved one at a time and in order on the calling
+     * thread, so the model ends up the same as when resolving serially.
+     */
+    public void setForkJoinPool(ForkJoinPool forkJoinPool) {
+        this.forkJoinPool = forkJoinPool;
+    }
 
     public void resolveFully(OpenAPI openAPI) {
-        Components components = openAPI.getComponents();
+        setComponents(openAPI.getComponents());
+        Paths paths = openAPI.getPaths();
+        if(paths != null) {
+            if (forkJoinPool != null && paths.size() > 1) {
+                resolvePathsInParallel(openAPI, paths);
+                return;
+            }
+            for (String pathname : paths.keySet()) {
+                PathItem pathItem = paths.get(pathname);
+                resolvePath(pathItem);
+            }
+        }
+    }
+
+    /**
+     * Sets the components refs are resolved against, without resolving anything yet.
+     */
+    void setComponents(Components components) {
         if (components != null && components.getRequestBodies() != null) {
             requestBodies = components.getRequestBodies();
             if (requestBodies == null) {
@@ -100,102 +166,296 @@ public class ResolverFully {
                 links = new HashMap<>();
             }
         }
-        Paths paths = openAPI.getPaths();
-        if(paths != null) {
-            for (String pathname : paths.keySet()) {
-                PathItem pathItem = paths.get(pathname);
+    }
+
+    private void resolvePathsInParallel(OpenAPI openAPI, Paths paths) {
+        RefGraph graph = RefGraph.build(openAPI);
+        Set<String> ordered = reachingCycles(graph);
+        List<PathItem> serial = new ArrayList<>();
+        List<PathItem> parallel = new ArrayList<>();
+        for (Map.Entry<String, PathItem> path : paths.entrySet()) {
+            if (ordered.contains(RefGraph.pathNode(path.getKey()))) {
+                serial.add(path.getValue());
+            } else {
+                parallel.add(path.getValue());
+            }
+        }
+
+        concurrentResolutions = new ConcurrentHashMap<>();
+        parallelAborted = false;
+        preResolveSharedComponents(parallel);
+        // submitting the task publishes the pre-resolved components to the workers, and joining it publishes
+        // what the workers changed back to the calling thread
+        ForkJoinTask<Void> task = forkJoinPool.submit(new ResolvePathsTask(parallel, 0, parallel.size()));
+        boolean resolved = false;
+        try {
+            for (PathItem pathItem : serial) {
+                if (parallelAborted) {
+                    // a worker failed, and joining the task throws its exception
+                    break;
+                }
                 resolvePath(pathItem);
             }
+            resolved = true;
+        } finally {
+            if (!resolved) {
+                // not cancelling the task, as a cancelled task can be joined while its subtasks still run
+                parallelAborted = true;
+            }
+            // the workers must be done with the model before the exception, if any, leaves
+            task.quietlyJoin();
         }
+        task.join();
     }
 
-    public void resolvePath(PathItem pathItem){
-        for(Operation op : pathItem.readOperations()) {
-            // inputs
+    /**
+     * Resolves, on the calling thread, the parameters, request bodies, headers and links of the components that
+     * the given paths refer to. The workers skip those, so they never change a component shared between paths.
+     * The components of these paths don't reach a reference cycle, so resolving them first gives the same result.
+     */
+    private void preResolveSharedComponents(List<PathItem> pathItems) {
+        Set<Object> shared = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (PathItem pathItem : pathItems) {
+            collectSharedComponents(pathItem, shared);
+        }
+        for (Object component : shared) {
+            if (component instanceof Parameter) {
+                resolveParameterSchemas((Parameter) component);
+            } else if (component instanceof RequestBody) {
+                resolveRequestBodySchemas((RequestBody) component);
+            } else if (component instanceof Header) {
+                resolveHeaderExamples((Header) component);
+            } else if (component instanceof Link) {
+                resolveHeaders(((Link) component).getHeaders());
+            }
+        }
+        preResolved = shared;
+    }
+
+    private void collectSharedComponents(PathItem pathItem, Set<Object> shared) {
+        for (Operation op : pathItem.readOperations()) {
             if (op.getParameters() != null) {
                 for (Parameter parameter : op.getParameters()) {
-                    parameter = parameter.get$ref() != null ? resolveParameter(parameter) : parameter;
-                    if (parameter.getSchema() != null) {
-                        Schema resolved = resolveSchema(parameter.getSchema());
-                        if (resolved != null) {
-                            parameter.setSchema(resolved);
+                    if (parameter.get$ref() != null) {
+                        addShared(resolveParameter(parameter), parameter, shared);
+                    }
+                }
+            }
+            if (op.getCallbacks() != null) {
+                for (Callback callback : op.getCallbacks().values()) {
+                    if (callback != null) {
+                        for (PathItem path : callback.values()) {
+                            if (path != null) {
+                                collectSharedComponents(path, shared);
+                            }
                         }
                     }
-                    if(parameter.getContent() != null){
-                        Map<String,MediaType> content = parameter.getContent();
-                        for (String key: content.keySet()){
-                            if (content.get(key) != null && content.get(key).getSchema() != null ){
-                                Schema resolvedSchema = resolveSchema(content.get(key).getSchema());
-                                if (resolvedSchema != null) {
-                                    content.get(key).setSchema(resolvedSchema);
+                }
+            }
+            if (op.getRequestBody() != null && op.getRequestBody().get$ref() != null) {
+                addShared(resolveRequestBody(op.getRequestBody()), op.getRequestBody(), shared);
+            }
+            if (op.getResponses() != null) {
+                for (ApiResponse response : op.getResponses().values()) {
+                    collectSharedHeaders(response.getHeaders(), shared);
+                    if (response.getLinks() != null) {
+                        for (Link link : response.getLinks().values()) {
+                            if (link.get$ref() != null) {
+                                Link component = findLink(link);
+                                if (addShared(component, link, shared)) {
+                                    collectSharedHeaders(component.getHeaders(), shared);
                                 }
                             }
                         }
                     }
                 }
             }
+        }
+    }
 
-            if (op.getCallbacks() != null){
-                Map<String,Callback> callbacks = op.getCallbacks();
-                for (String name : callbacks.keySet()) {
-                    Callback callback = callbacks.get(name);
-                    if (callback != null) {
-                        for(String callbackName : callback.keySet()) {
-                            PathItem path = callback.get(callbackName);
-                            if(path != null){
-                                resolvePath(path);
-                            }
+    private void collectSharedHeaders(Map<String, Header> headers, Set<Object> shared) {
+        if (headers != null) {
+            for (Header header : headers.values()) {
+                if (header.get$ref() != null) {
+                    addShared(resolveHeader(header), header, shared);
+                }
+            }
+        }
+    }
 
-                        }
+    private static boolean addShared(Object component, Object ref, Set<Object> shared) {
+        return component != null && component != ref && shared.add(component);
+    }
+
+    /**
+     * The nodes that reach a reference cycle, or a ref that is not a path item or component. The schemas those
+     * resolve to depend on the order they are met in.
+     */
+    private static Set<String> reachingCycles(RefGraph graph) {
+        Set<String> reaching = new HashSet<>();
+        // dependencies come first, except within a cycle, whose nodes are all cyclic anyway
+        for (String node : graph.getResolutionOrder()) {
+            boolean reachesCycle = graph.isCyclic(node) || !graph.isDeclared(node);
+            for (String reference : graph.getReferences(node)) {
+                reachesCycle = reachesCycle || reaching.contains(reference);
+            }
+            if (reachesCycle) {
+                reaching.add(node);
+            }
+        }
+        return reaching;
+    }
+
+    private final class ResolvePathsTask extends RecursiveAction {
+        private final List<PathItem> pathItems;
+        private final int from;
+        private final int to;
+
+        ResolvePathsTask(List<PathItem> pathItems, int from, int to) {
+            this.pathItems = pathItems;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (parallelAborted) {
+                return;
+            }
+            if (to - from <= 1) {
+                if (to > from) {
+                    try {
+                        resolvePath(pathItems.get(from));
+                    } catch (RuntimeException | Error e) {
+                        parallelAborted = true;
+                        throw e;
                     }
                 }
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            ResolvePathsTask second = new ResolvePathsTask(pathItems, middle, to);
+            second.fork();
+            try {
+                new ResolvePathsTask(pathItems, from, middle).invoke();
+            } finally {
+                // unlike invokeAll, wait for the other half even if this one failed, so that the whole task is
+                // only done once no worker changes the model anymore
+                second.quietlyJoin();
             }
+            second.join();
+        }
+    }
 
-            RequestBody refRequestBody = op.getRequestBody();
-            if (refRequestBody != null){
-                RequestBody requestBody = refRequestBody.get$ref() != null ? resolveRequestBody(refRequestBody) : refRequestBody;
-                op.setRequestBody(requestBody);
-                if (requestBody.getContent() != null) {
-                    Map<String, MediaType> content = requestBody.getContent();
-                    for (String key : content.keySet()) {
-                        if (content.get(key) != null && content.get(key).getSchema() != null) {
-                            Schema resolved = resolveSchema(content.get(key).getSchema());
-                            if (resolved != null) {
-                                content.get(key).setSchema(resolved);
-                            }
+    public void resolvePath(PathItem pathItem){
+        for(Operation op : pathItem.readOperations()) {
+            resolveOperation(op);
+        }
+    }
+
+    public void resolveOperation(Operation op) {
+        if (cancellationToken != null) {
+            cancellationToken.throwIfCancelled();
+        }
+        // inputs
+        if (op.getParameters() != null) {
+            for (Parameter parameter : op.getParameters()) {
+                parameter = parameter.get$ref() != null ? resolveParameter(parameter) : parameter;
+                if (!preResolved.contains(parameter)) {
+                    resolveParameterSchemas(parameter);
+                }
+            }
+        }
+
+        if (op.getCallbacks() != null){
+            Map<String,Callback> callbacks = op.getCallbacks();
+            for (String name : callbacks.keySet()) {
+                Callback callback = callbacks.get(name);
+                if (callback != null) {
+                    for(String callbackName : callback.keySet()) {
+                        PathItem path = callback.get(callbackName);
+                        if(path != null){
+                            resolvePath(path);
                         }
+
                     }
                 }
             }
-            // responses
-            ApiResponses responses = op.getResponses();
-            if(responses != null) {
-                for(String code : responses.keySet()) {
-                    ApiResponse response = responses.get(code);
-                    if (response.getContent() != null) {
-                        Map<String, MediaType> content = response.getContent();
-                        for(String mediaType: content.keySet()){
-                            if(content.get(mediaType).getSchema() != null) {
-                                Schema resolved = resolveSchema(content.get(mediaType).getSchema());
-                                response.getContent().get(mediaType).setSchema(resolved);
-                            }
-                            if(content.get(mediaType).getExamples() != null) {
-                                Map<String,Example> resolved = resolveExample(content.get(mediaType).getExamples());
-                                response.getContent().get(mediaType).setExamples(resolved);
+        }
+
+        RequestBody refRequestBody = op.getRequestBody();
+        if (refRequestBody != null){
+            RequestBody requestBody = refRequestBody.get$ref() != null ? resolveRequestBody(refRequestBody) : refRequestBody;
+            op.setRequestBody(requestBody);
+            if (!preResolved.contains(requestBody)) {
+                resolveRequestBodySchemas(requestBody);
+            }
+        }
+        // responses
+        ApiResponses responses = op.getResponses();
+        if(responses != null) {
+            for(String code : responses.keySet()) {
+                ApiResponse response = responses.get(code);
+                if (response.getContent() != null) {
+                    Map<String, MediaType> content = response.getContent();
+                    for(String mediaType: content.keySet()){
+                        if(content.get(mediaType).getSchema() != null) {
+                            Schema resolved = resolveSchema(content.get(mediaType).getSchema());
+                            response.getContent().get(mediaType).setSchema(resolved);
+                        }
+                        if(content.get(mediaType).getExamples() != null) {
+                            Map<String,Example> resolved = resolveExample(content.get(mediaType).getExamples());
+                            response.getContent().get(mediaType).setExamples(resolved);
 
-                            }
                         }
                     }
+                }
 
-                    resolveHeaders(response.getHeaders());
+                resolveHeaders(response.getHeaders());
 
-                    Map<String, Link> links = response.getLinks();
-                    if (links != null) {
-                        for (Map.Entry<String, Link> link : links.entrySet()) {
-                            Link value = link.getValue();
-                            Link resolvedValue = value.get$ref() != null ? resolveLink(value) : value;
-                            link.setValue(resolvedValue);
-                        }
+                Map<String, Link> links = response.getLinks();
+                if (links != null) {
+                    for (Map.Entry<String, Link> link : links.entrySet()) {
+                        Link value = link.getValue();
+                        Link resolvedValue = value.get$ref() != null ? resolveLink(value) : value;
+                        link.setValue(resolvedValue);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Resolves the schemas of a parameter, in place.
+     */
+    public void resolveParameterSchemas(Parameter parameter) {
+        if (parameter.getSchema() != null) {
+            Schema resolved = resolveSchema(parameter.getSchema());
+            if (resolved != null) {
+                parameter.setSchema(resolved);
+            }
+        }
+        if(parameter.getContent() != null){
+            Map<String,MediaType> content = parameter.getContent();
+            for (String key: content.keySet()){
+                if (content.get(key) != null && content.get(key).getSchema() != null ){
+                    Schema resolvedSchema = resolveSchema(content.get(key).getSchema());
+                    if (resolvedSchema != null) {
+                        content.get(key).setSchema(resolvedSchema);
+                    }
+                }
+            }
+        }
+    }
+
+    private void resolveRequestBodySchemas(RequestBody requestBody) {
+        if (requestBody.getContent() != null) {
+            Map<String, MediaType> content = requestBody.getContent();
+            for (String key : content.keySet()) {
+                if (content.get(key) != null && content.get(key).getSchema() != null) {
+                    Schema resolved = resolveSchema(content.get(key).getSchema());
+                    if (resolved != null) {
+                        content.get(key).setSchema(resolved);
                     }
                 }
             }
@@ -209,15 +469,21 @@ public class ResolverFully {
         for (Map.Entry<String, Header> header : headers.entrySet()) {
             Header value = header.getValue();
             Header resolvedValue = value.get$ref() != null ? resolveHeader(value) : value;
-            Map<String, Example> examples = resolvedValue.getExamples();
-            if(examples != null) {
-                Map<String,Example> resolved = resolveExample(examples);
-                resolvedValue.setExamples(resolved);
+            if (!preResolved.contains(resolvedValue)) {
+                resolveHeaderExamples(resolvedValue);
             }
             header.setValue(resolvedValue);
         }
     }
 
+    private void resolveHeaderExamples(Header header) {
+        Map<String, Example> examples = header.getExamples();
+        if(examples != null) {
+            Map<String,Example> resolved = resolveExample(examples);
+            header.setExamples(resolved);
+        }
+    }
+
     public Header resolveHeader(Header header){
         RefFormat refFormat = computeRefFormat(header.get$ref());
         String $ref = header.get$ref();
@@ -231,17 +497,20 @@ public class ResolverFully {
     }
   
     public Link resolveLink(Link link){
+        Link link1 = findLink(link);
+        if (link1 != null && !preResolved.contains(link1)) {
+            resolveHeaders(link1.getHeaders());
+        }
+        return link1;
+    }
+
+    private Link findLink(Link link) {
         RefFormat refFormat = computeRefFormat(link.get$ref());
         String $ref = link.get$ref();
         if (!isAnExternalRefFormat(refFormat)){
             if (links != null && !links.isEmpty()) {
                 String referenceKey = computeDefinitionName($ref);
-                Link link1 = links.getOrDefault(referenceKey, link);
-                if (link1 == null) {
-                    return null;
-                }
-                resolveHeaders(link1.getHeaders());
-                return link1;
+                return links.getOrDefault(referenceKey, link);
             }
         }
         return link;
@@ -272,30 +541,158 @@ public class ResolverFully {
     }
 
     public Schema resolveSchema(Schema schema) {
+        if (maxExpansion > 0) {
+            ParseBudget.check(ParseBudget.Limit.RESOLVED_EXPANSION, maxExpansion, expansion.incrementAndGet(), null);
+        }
+        if (cancellationToken != null) {
+            cancellationToken.throwIfCancelled();
+        }
         if(schema.get$ref() != null) {
-            String ref= schema.get$ref();
-            ref = ref.substring(ref.lastIndexOf("/") + 1);
-            Schema resolved = schemas.get(ref);
+            return resolveRef(schema);
+        }
 
-            if (resolved != null) {
+        // resolved in place, so meeting it again while in progress yields the same instance
+        Schema memo = claim(schema, schema);
+        if (memo != null) {
+            return memo;
+        }
+        boolean completed = false;
+        try {
+            Schema model = resolveSchemaContents(schema);
+            complete(schema, model);
+            completed = true;
+            return model;
+        } finally {
+            if (!completed) {
+                abandon(schema);
+            }
+        }
+    }
 
-                if (this.resolvedModels.containsKey(ref)) {
-                    LOGGER.debug("avoiding infinite loop");
-                    return resolvedModels.get(ref);
-                }
-                resolvedModels.put(ref, schema);
-                Schema model = resolveSchema(resolved);
+    /**
+     * Resolves the schema a ref points at once, however many refs, spelled however, point at it. While it is
+     * being resolved, refs met again inside it resolve to the ref schema itself, so cycles stay explicit refs.
+     */
+    private Schema resolveRef(Schema schema) {
+        String ref = schema.get$ref();
+        Schema memo = resolvedRefs.get(ref);
+        if (memo != null) {
+            return memo;
+        }
+        Schema target = schemas != null ? schemas.get(ref.substring(ref.lastIndexOf("/") + 1)) : null;
+        if (target == null) {
+            return schema;
+        }
+        memo = claim(target, schema);
+        if (memo != null) {
+            LOGGER.debug("avoiding infinite loop");
+            return memo;
+        }
+        boolean completed = false;
+        try {
+            Schema model = resolveSchemaContents(target);
+
+            // if we make it without a resolution loop, we can update the reference
+            complete(target, model);
+            completed = true;
+            resolvedRefs.put(ref, model);
+            return model;
+        } finally {
+            if (!completed) {
+                abandon(target);
+            }
+        }
+    }
 
-                // if we make it without a resolution loop, we can update the reference
-                resolvedModels.put(ref, model);
+    /**
+     * Returns what the schema resolved to, or null after recording that the current thread is resolving it,
+     * with the given placeholder standing in for it until then. While resolving in parallel, a schema another
+     * thread is resolving is waited for; the thread resolving it gets the placeholder.
+     */
+    private Schema claim(Schema schema, Schema placeholder) {
+        ConcurrentMap<IdentityKey, Resolution> resolutions = concurrentResolutions;
+        if (resolutions == null) {
+            Schema memo = resolvedSchemas.get(schema);
+            if (memo == null) {
+                resolvedSchemas.put(schema, placeholder);
+            }
+            return memo;
+        }
+        Resolution resolution = resolutions.putIfAbsent(new IdentityKey(schema), new Resolution(placeholder));
+        return resolution != null ? resolution.get() : null;
+    }
 
-                return model;
+    private void complete(Schema schema, Schema model) {
+        ConcurrentMap<IdentityKey, Resolution> resolutions = concurrentResolutions;
+        if (resolutions == null) {
+            resolvedSchemas.put(schema, model);
+            resolvedSchemas.put(model, model);
+            return;
+        }
+        resolutions.get(new IdentityKey(schema)).complete(model);
+        if (model != schema) {
+            Resolution resolved = new Resolution(model);
+            resolved.complete(model);
+            resolutions.putIfAbsent(new IdentityKey(model), resolved);
+        }
+    }
+
+    private void abandon(Schema schema) {
+        ConcurrentMap<IdentityKey, Resolution> resolutions = concurrentResolutions;
+        if (resolutions != null) {
+            // the resolution is failing, just don't keep other threads waiting for this schema
+            resolutions.get(new IdentityKey(schema)).complete(null);
+        }
+    }
 
-            }else {
-                return schema;
+    private static final class Resolution {
+        private final Thread owner = Thread.currentThread();
+        private final Schema placeholder;
+        private final CountDownLatch done = new CountDownLatch(1);
+        private volatile Schema model;
+
+        Resolution(Schema placeholder) {
+            this.placeholder = placeholder;
+        }
+
+        void complete(Schema model) {
+            this.model = model;
+            done.countDown();
+        }
+
+        Schema get() {
+            if (done.getCount() > 0 && owner != Thread.currentThread()) {
+                try {
+                    done.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IllegalStateException("interrupted while waiting for a schema to be resolved", e);
+                }
             }
+            Schema result = model;
+            return result != null ? result : placeholder;
+        }
+    }
+
+    private static final class IdentityKey {
+        private final Object value;
+
+        IdentityKey(Object value) {
+            this.value = value;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof IdentityKey && ((IdentityKey) o).value == value;
         }
 
+        @Override
+        public int hashCode() {
+            return System.identityHashCode(value);
+        }
+    }
+
+    private Schema resolveSchemaContents(Schema schema) {
         if(schema instanceof ArraySchema) {
             ArraySchema arrayModel = (ArraySchema) schema;
             if(arrayModel.getItems().get$ref() != null) {
@@ -314,14 +711,7 @@ public class ResolverFully {
                     Schema innerProperty = obj.getProperties().get(propertyName);
                     // reference check
                     if(schema != innerProperty) {
-                        if(resolvedProperties.get(propertyName) == null || resolvedProperties.get(propertyName) != innerProperty) {
-                            LOGGER.debug("avoiding infinite loop");
-                            Schema resolved = resolveSchema(innerProperty);
-                            updated.put(propertyName, resolved);
-                            resolvedProperties.put(propertyName, resolved);
-                        }else {
-                            updated.put(propertyName, resolvedProperties.get(propertyName));
-                        }
+                        updated.put(propertyName, resolveSchema(innerProperty));
                     }
                 }
                 obj.setProperties(updated);
@@ -347,140 +737,32 @@ public class ResolverFully {
 
                 }
 
+                boolean aggregated = false;
                 if (composedSchema.getAllOf() != null) {
-                    for (Schema innerModel : composedSchema.getAllOf()) {
-                        Schema resolved = resolveSchema(innerModel);
-                        Map<String, Schema> properties = resolved.getProperties();
-                        if (resolved.getProperties() != null) {
-                            for (String key : properties.keySet()) {
-                                Schema prop = (Schema) resolved.getProperties().get(key);
-                                if(resolvedProperties.get(key) == null || resolvedProperties.get(key) != prop) {
-                                    LOGGER.debug("avoiding infinite loop");
-                                    Schema resolvedProp = resolveSchema(prop);
-                                    model.addProperties(key,resolvedProp );
-                                    resolvedProperties.put(key, resolvedProp);
-                                }else {
-                                    model.addProperties(key,resolvedProperties.get(key));
-                                }
-                            }
-                            if (resolved.getRequired() != null) {
-                                for (int i = 0; i < resolved.getRequired().size(); i++) {
-                                    if (resolved.getRequired().get(i) != null) {
-                                        requiredProperties.add(resolved.getRequired().get(i).toString());
-                                    }
-                                }
-                            }
-                        }
-                        if (requiredProperties.size() > 0) {
-                            model.setRequired(new ArrayList<>(requiredProperties));
-                        }
-                        if (resolved.getExample() != null) {
-                            examples.add(resolved.getExample());
-                        }
-                        if (composedSchema.getExtensions() != null) {
-                            Map<String, Object> extensions = composedSchema.getExtensions();
-                            for (String key : extensions.keySet()) {
-                                model.addExtension(key, composedSchema.getExtensions().get(key));
-                            }
-                        }
-                    }
-
+                    aggregated |= aggregate(model, composedSchema.getAllOf(), requiredProperties, examples);
                 } if (composedSchema.getOneOf() != null) {
                     if(adjacent == false) {
-                        Schema resolved;
-                        List<Schema> list = new ArrayList<>();
-                        for (Schema innerModel : composedSchema.getOneOf()) {
-                            resolved = resolveSchema(innerModel);
-                            list.add(resolved);
-                        }
-                        composedSchema.setOneOf(list);
+                        composedSchema.setOneOf(resolveSchemas(composedSchema.getOneOf()));
                         return composedSchema;
                     }else {
-                        for (Schema innerModel : composedSchema.getOneOf()) {
-                            Schema resolved = resolveSchema(innerModel);
-                            Map<String, Schema> properties = resolved.getProperties();
-                            if (resolved.getProperties() != null) {
-                                for (String key : properties.keySet()) {
-                                    Schema prop = (Schema) resolved.getProperties().get(key);
-                                    if(resolvedProperties.get(key) == null || resolvedProperties.get(key) != prop) {
-                                        LOGGER.debug("avoiding infinite loop");
-                                        Schema resolvedProp = resolveSchema(prop);
-                                        model.addProperties(key,resolvedProp );
-                                        resolvedProperties.put(key, resolvedProp);
-                                    }else {
-                                        model.addProperties(key,resolvedProperties.get(key));
-                                    }
-                                }
-                                if (resolved.getRequired() != null) {
-                                    for (int i = 0; i < resolved.getRequired().size(); i++) {
-                                        if (resolved.getRequired().get(i) != null) {
-                                            requiredProperties.add(resolved.getRequired().get(i).toString());
-                                        }
-                                    }
-                                }
-                            }
-                            if (requiredProperties.size() > 0) {
-                                model.setRequired(new ArrayList<>(requiredProperties));
-                            }
-                            if (resolved.getExample() != null) {
-                                examples.add(resolved.getExample());
-                            }
-                            if (composedSchema.getExtensions() != null) {
-                                Map<String, Object> extensions = composedSchema.getExtensions();
-                                for (String key : extensions.keySet()) {
-                                    model.addExtension(key, composedSchema.getExtensions().get(key));
-                                }
-                            }
-                        }
+                        aggregated |= aggregate(model, composedSchema.getOneOf(), requiredProperties, examples);
                     }
 
                 } if (composedSchema.getAnyOf() != null) {
                     if(adjacent == false) {
-                        Schema resolved;
-                        List<Schema> list = new ArrayList<>();
-                        for (Schema innerModel : composedSchema.getAnyOf()) {
-                            resolved = resolveSchema(innerModel);
-                            list.add(resolved);
-                        }
-                        composedSchema.setAnyOf(list);
+                        composedSchema.setAnyOf(resolveSchemas(composedSchema.getAnyOf()));
                         return composedSchema;
                     }else {
-                        for (Schema innerModel : composedSchema.getAnyOf()) {
-                            Schema resolved = resolveSchema(innerModel);
-                            Map<String, Schema> properties = resolved.getProperties();
-                            if (resolved.getProperties() != null) {
-                                for (String key : properties.keySet()) {
-                                    Schema prop = (Schema) resolved.getProperties().get(key);
-                                    if(resolvedProperties.get(key) == null || resolvedProperties.get(key) != prop) {
-                                        LOGGER.debug("avoiding infinite loop");
-                                        Schema resolvedProp = resolveSchema(prop);
-                                        model.addProperties(key,resolvedProp );
-                                        resolvedProperties.put(key, resolvedProp);
-                                    }else {
-                                        model.addProperties(key,resolvedProperties.get(key));
-                                    }
-                                }
-                                if (resolved.getRequired() != null) {
-                                    for (int i = 0; i < resolved.getRequired().size(); i++) {
-                                        if (resolved.getRequired().get(i) != null) {
-                                            requiredProperties.add(resolved.getRequired().get(i).toString());
-                                        }
-                                    }
-                                }
-                            }
-                            if (requiredProperties.size() > 0) {
-                                model.setRequired(new ArrayList<>(requiredProperties));
-                            }
-                            if (resolved.getExample() != null) {
-                                examples.add(resolved.getExample());
-                            }
-                            if (composedSchema.getExtensions() != null) {
-                                Map<String, Object> extensions = composedSchema.getExtensions();
-                                for (String key : extensions.keySet()) {
-                                    model.addExtension(key, composedSchema.getExtensions().get(key));
-                                }
-                            }
-                        }
+                        aggregated |= aggregate(model, composedSchema.getAnyOf(), requiredProperties, examples);
+                    }
+                }
+                if (requiredProperties.size() > 0) {
+                    model.setRequired(new ArrayList<>(requiredProperties));
+                }
+                if (aggregated && composedSchema.getExtensions() != null) {
+                    Map<String, Object> extensions = composedSchema.getExtensions();
+                    for (String key : extensions.keySet()) {
+                        model.addExtension(key, extensions.get(key));
                     }
                 }
                 if (schema.getExample() != null) {
@@ -507,14 +789,7 @@ public class ResolverFully {
             Map<String, Schema> properties = model.getProperties();
             for (String propertyName : properties.keySet()) {
                 Schema property = (Schema) model.getProperties().get(propertyName);
-                if(resolvedProperties.get(propertyName) == null || resolvedProperties.get(propertyName) != property) {
-                    LOGGER.debug("avoiding infinite loop");
-                    Schema resolved = resolveSchema(property);
-                    updated.put(propertyName, resolved);
-                    resolvedProperties.put(propertyName, resolved);
-                }else {
-                    updated.put(propertyName, resolvedProperties.get(propertyName));
-                }
+                updated.put(propertyName, resolveSchema(property));
             }
 
             for (String key : updated.keySet()) {
@@ -541,6 +816,43 @@ public class ResolverFully {
         return schema;
     }
 
+    /**
+     * Merges the properties, required properties and examples of the resolved members into the model.
+     * Members are resolved through the memo, so a member shared by many composed schemas, or a whole
+     * inheritance chain, is resolved and merged once. Returns whether there were any members.
+     */
+    private boolean aggregate(Schema model, List<Schema> members, Set<String> requiredProperties, Set<Object> examples) {
+        for (Schema innerModel : members) {
+            Schema resolved = resolveSchema(innerModel);
+            Map<String, Schema> properties = resolved.getProperties();
+            if (properties != null) {
+                for (Map.Entry<String, Schema> property : properties.entrySet()) {
+                    model.addProperties(property.getKey(), resolveSchema(property.getValue()));
+                }
+                List<String> required = resolved.getRequired();
+                if (required != null) {
+                    for (String name : required) {
+                        if (name != null) {
+                            requiredProperties.add(name);
+                        }
+                    }
+                }
+            }
+            if (resolved.getExample() != null) {
+                examples.add(resolved.getExample());
+            }
+        }
+        return !members.isEmpty();
+    }
+
+    private List<Schema> resolveSchemas(List<Schema> schemas) {
+        List<Schema> list = new ArrayList<>(schemas.size());
+        for (Schema innerModel : schemas) {
+            list.add(resolveSchema(innerModel));
+        }
+        return list;
+    }
+
     public Map<String,Example> resolveExample(Map<String,Example> examples){
 
         Map<String,Example> resolveExamples = examples;
@@ -0,0 +1,83 @@
+package io.swagger.v3.parser.processors;
+
+import io.swagger.v3.oas.models.OpenAPI;
+import io.swagger.v3.parser.OpenAPIV3Parser;
+import io.swagger.v3.parser.core.models.ParseOptions;
+import org.apache.commons.io.FileUtils;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+/**
+ * Measures how component processing scales with the number of schemas imported from an external document.
+ *
+ * Run with {@code java -cp <test classpath> io.swagger.v3.parser.processors.ComponentsProcessorBenchmark [schemas...]}.
+ * For each size a main document and a library are generated into a temporary directory; component {@code C<i>}
+ * of the main document references schema {@code E<i>} of the library, which references {@code E<(i-1)/2>}.
+ * Every run reads and resolves the main document from scratch.
+ */
+public class ComponentsProcessorBenchmark {
+
+    private static final int[] SCHEMAS = {1000, 2000, 4000, 8000};
+    private static final int WARMUP_RUNS = 3;
+    private static final int MEASURED_RUNS = 5;
+
+    public static void main(String[] args) throws IOException {
+        int[] sizes = SCHEMAS;
+        if (args.length > 0) {
+            sizes = new int[args.length];
+            for (int i = 0; i < args.length; i++) {
+                sizes[i] = Integer.parseInt(args[i]);
+            }
+        }
+        for (int schemas : sizes) {
+            long time = measure(schemas);
+            System.out.println(String.format("%6d schemas %10.1f ms  %6.1f us/schema", schemas, time / 1e6, time / 1e3 / schemas));
+        }
+    }
+
+    private static long measure(int schemas) throws IOException {
+        File dir = Files.createTempDirectory("components-benchmark").toFile();
+        try {
+            writeLibrary(dir, schemas);
+            String location = new File(dir, "main.yaml").getAbsolutePath();
+            long best = Long.MAX_VALUE;
+            for (int run = 0; run < WARMUP_RUNS + MEASURED_RUNS; run++) {
+                long start = System.nanoTime();
+                OpenAPI openAPI = read(location);
+                long time = System.nanoTime() - start;
+                if (openAPI.getComponents().getSchemas().size() != 2 * schemas) {
+                    throw new IllegalStateException("expected " + 2 * schemas + " schemas, got " + openAPI.getComponents().getSchemas().size());
+                }
+                if (run >= WARMUP_RUNS) {
+                    best = Math.min(best, time);
+                }
+            }
+            return best;
+        } finally {
+            FileUtils.deleteDirectory(dir);
+        }
+    }
+
+    static OpenAPI read(String location) {
+        ParseOptions options = new ParseOptions();
+        options.setResolve(true);
+        return new OpenAPIV3Parser().read(location, null, options);
+    }
+
+    static void writeLibrary(File dir, int schemas) throws IOException {
+        StringBuilder main = new StringBuilder("openapi: 3.0.1\ninfo:\n  title: generated\n  version: '1'\npaths: {}\ncomponents:\n  schemas:\n");
+        StringBuilder library = new StringBuilder("openapi: 3.0.1\ninfo:\n  title: library\n  version: '1'\npaths: {}\ncomponents:\n  schemas:\n");
+        for (int i = 0; i < schemas; i++) {
+            main.append("    C").append(i).append(":\n      $ref: './library.yaml#/components/schemas/E").append(i).append("'\n");
+            library.append("    E").append(i).append(":\n      type: object\n      properties:\n        name:\n          type: string\n");
+            if (i > 0) {
+                library.append("        parent:\n          $ref: '#/components/schemas/E").append((i - 1) / 2).append("'\n");
+            }
+        }
+        FileUtils.writeStringToFile(new File(dir, "main.yaml"), main.toString(), StandardCharsets.UTF_8);
+        FileUtils.writeStringToFile(new File(dir, "library.yaml"), library.toString(), StandardCharsets.UTF_8);
+    }
+}
@@ -177,6 +177,27 @@ public class SchemaProcessorTest {
         assertEquals(refProperty.get$ref(), "#/components/schemas/bar");
     }
 
+    @Test
+    public void testProcessSharedSchemaOnce() throws Exception {
+        expectCreationOfExternalRefProcessor();
+
+        final String ref = "http://my.company.com/path/to/file.json#/foo/bar";
+        final Schema shared = new Schema().$ref(ref);
+        final Schema first = new Schema().addProperties("bar", shared);
+        final Schema second = new Schema().addProperties("bar", shared);
+
+        expectCallToExternalRefProcessor(ref, RefFormat.URL, null);
+
+        SchemaProcessor processor = new SchemaProcessor(cache, openAPI);
+        processor.processSchema(first);
+        processor.processSchema(second);
+
+        new FullVerifications() {{
+        }};
+
+        assertEquals(shared.get$ref(), ref);
+    }
+
     private void expectCallToExternalRefProcessor(final String ref, final RefFormat refFormat, final String newRef) {
         new StrictExpectations() {{
             externalRefProcessor.processRefToExternalSchema(ref, refFormat);
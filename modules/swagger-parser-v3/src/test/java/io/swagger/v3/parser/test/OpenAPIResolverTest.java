@@ -39,12 +39,14 @@ import io.swagger.v3.parser.core.models.AuthorizationValue;
 import io.swagger.v3.parser.core.models.ParseOptions;
 import io.swagger.v3.parser.core.models.SwaggerParseResult;
 import io.swagger.v3.parser.processors.ComponentsProcessor;
+import io.swagger.v3.parser.processors.OperationProcessor;
 import io.swagger.v3.parser.processors.PathsProcessor;
 import io.swagger.v3.parser.util.OpenAPIDeserializer;
 import io.swagger.v3.parser.util.ResolverFully;
 import mockit.Injectable;
 import mockit.Mocked;
 import mockit.StrictExpectations;
+import mockit.Verifications;
 import org.apache.commons.io.FileUtils;
 import org.testng.Assert;
 import org.testng.annotations.AfterClass;
@@ -69,6 +71,7 @@ import static com.github.tomakehurst.wiremock.client.WireMock.urlPathMatching;
 import static org.testng.Assert.assertEquals;
 import static org.testng.Assert.assertNotNull;
 import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertSame;
 import static org.testng.Assert.assertTrue;
 import static org.testng.FileAssert.fail;
 
@@ -768,11 +771,11 @@ public class OpenAPIResolverTest {
                                     @Mocked final PathsProcessor pathsProcessor) throws Exception {
 
         new StrictExpectations() {{
-            new ResolverCache(swagger, auths, null);
+            new ResolverCache(swagger, auths, null, null);
             result = cache;
             times = 1;
 
-            new ComponentsProcessor(swagger, cache);
+            new ComponentsProcessor(swagger, cache, withInstanceOf(OpenAPIResolver.Settings.class));
             result = componentsProcessor;
             times = 1;
 
@@ -791,6 +794,20 @@ public class OpenAPIResolverTest {
         assertEquals(new OpenAPIResolver(swagger, auths, null).resolve(), swagger);
     }
 
+    @Test
+    public void testOperationsAreProcessedOnce(@Mocked final OperationProcessor operationProcessor) throws Exception {
+        final OpenAPI openAPI = new OpenAPI()
+                .path("/pets", new PathItem().get(new Operation()).post(new Operation()))
+                .path("/pets/{id}", new PathItem().get(new Operation()));
+
+        new OpenAPIResolver(openAPI, null, null).resolve();
+
+        new Verifications() {{
+            operationProcessor.processOperation((Operation) any);
+            times = 3;
+        }};
+    }
+
     @Test
     public void testSwaggerResolver_NullSwagger() throws Exception {
         assertNull(new OpenAPIResolver(null, null, null).resolve());
@@ -1166,6 +1183,69 @@ public class OpenAPIResolverTest {
         }
     }
 
+    @Test
+    public void testResolveFullySharesSchemas() {
+        String yaml = "openapi: 3.0.1\n" +
+                "info:\n" +
+                "  title: shared\n" +
+                "  version: '1'\n" +
+                "paths:\n" +
+                "  /a:\n" +
+                "    get:\n" +
+                "      responses:\n" +
+                "        '200':\n" +
+                "          description: ok\n" +
+                "          content:\n" +
+                "            application/json:\n" +
+                "              schema:\n" +
+                "                $ref: '#/components/schemas/Pet'\n" +
+                "  /b:\n" +
+                "    get:\n" +
+                "      responses:\n" +
+                "        '200':\n" +
+                "          description: ok\n" +
+                "          content:\n" +
+                "            application/json:\n" +
+                "              schema:\n" +
+                "                type: object\n" +
+                "                properties:\n" +
+                "                  pet:\n" +
+                "                    $ref: '#/components/schemas/Pet'\n" +
+                "                  name:\n" +
+                "                    type: integer\n" +
+                "components:\n" +
+                "  schemas:\n" +
+                "    Pet:\n" +
+                "      type: object\n" +
+                "      properties:\n" +
+                "        name:\n" +
+                "          type: string\n" +
+                "        owner:\n" +
+                "          $ref: '#/components/schemas/Person'\n" +
+                "    Person:\n" +
+                "      type: object\n" +
+                "      properties:\n" +
+                "        pets:\n" +
+                "          type: array\n" +
+                "          items:\n" +
+                "            $ref: '#/components/schemas/Pet'\n";
+
+        ParseOptions options = new ParseOptions();
+        options.setResolve(true);
+        options.setResolveFully(true);
+        OpenAPI openAPI = new OpenAPIV3Parser().readContents(yaml, null, options).getOpenAPI();
+
+        Schema a = openAPI.getPaths().get("/a").getGet().getResponses().get("200").getContent().get("application/json").getSchema();
+        Schema b = openAPI.getPaths().get("/b").getGet().getResponses().get("200").getContent().get("application/json").getSchema();
+        assertSame(b.getProperties().get("pet"), a);
+        assertEquals(((Schema) b.getProperties().get("name")).getType(), "integer");
+        assertEquals(((Schema) a.getProperties().get("name")).getType(), "string");
+
+        // the cycle back to Pet stays a ref
+        Schema owner = (Schema) a.getProperties().get("owner");
+        assertEquals(((ArraySchema) owner.getProperties().get("pets")).getItems().get$ref(), "#/components/schemas/Pet");
+    }
+
     @Test
     public void propertyNameMixup() {
         ParseOptions parseOptions = new ParseOptions();
@@ -1176,6 +1256,82 @@ public class OpenAPIResolverTest {
         assertEquals(((ObjectSchema) ((ArraySchema) schema).getItems().getProperties().get("manufacturer")).getProperties().get("name").getExample(), "ACME Corporation");
     }
 
+    @Test
+    public void testResolveLargeExternalSchemaLibrary() throws Exception {
+        // every component imports a schema from the library, which references a further one in turn
+        final int count = 2000;
+        File dir = java.nio.file.Files.createTempDirectory("large-library").toFile();
+        StringBuilder main = new StringBuilder("openapi: 3.0.1\ninfo:\n  title: large library\n  version: '1'\npaths: {}\ncomponents:\n  schemas:\n");
+        StringBuilder library = new StringBuilder("openapi: 3.0.1\ninfo:\n  title: library\n  version: '1'\npaths: {}\ncomponents:\n  schemas:\n");
+        for (int i = 0; i < count; i++) {
+            main.append("    C").append(i).append(":\n      $ref: './library.yaml#/components/schemas/E").append(i).append("'\n");
+            library.append("    E").append(i).append(":\n      type: object\n      properties:\n        name:\n          type: string\n");
+            if (i > 0) {
+                library.append("        parent:\n          $ref: '#/components/schemas/E").append((i - 1) / 2).append("'\n");
+            }
+        }
+        FileUtils.writeStringToFile(new File(dir, "main.yaml"), main.toString(), StandardCharsets.UTF_8);
+        FileUtils.writeStringToFile(new File(dir, "library.yaml"), library.toString(), StandardCharsets.UTF_8);
+
+        try {
+            ParseOptions options = new ParseOptions();
+            options.setResolve(true);
+            OpenAPI openAPI = new OpenAPIV3Parser().read(new File(dir, "main.yaml").getAbsolutePath(), null, options);
+
+            Map<String, Schema> schemas = openAPI.getComponents().getSchemas();
+            assertEquals(schemas.size(), 2 * count);
+            for (int i = 1; i < count; i++) {
+                assertEquals(((Schema) schemas.get("E" + i).getProperties().get("parent")).get$ref(), "#/components/schemas/E" + (i - 1) / 2);
+                assertEquals(schemas.get("C" + i), schemas.get("E" + i));
+            }
+        } finally {
+            FileUtils.deleteDirectory(dir);
+        }
+    }
+
+    @Test
+    public void testResolveLongExternalRefChain() throws Exception {
+        // each schema of the library references the next one, resolved on a thread with a small stack
+        final int count = 5000;
+        final File dir = java.nio.file.Files.createTempDirectory("long-chain").toFile();
+        StringBuilder library = new StringBuilder("openapi: 3.0.1\ninfo:\n  title: library\n  version: '1'\npaths: {}\ncomponents:\n  schemas:\n");
+        for (int i = 0; i < count; i++) {
+            library.append("    E").append(i).append(":\n      type: object\n      properties:\n        next:\n");
+            if (i + 1 < count) {
+                library.append("          $ref: '#/components/schemas/E").append(i + 1).append("'\n");
+            } else {
+                library.append("          type: string\n");
+            }
+        }
+        FileUtils.writeStringToFile(new File(dir, "main.yaml"), "openapi: 3.0.1\ninfo:\n  title: long chain\n  version: '1'\npaths: {}\n" +
+                "components:\n  schemas:\n    Start:\n      $ref: './library.yaml#/components/schemas/E0'\n", StandardCharsets.UTF_8);
+        FileUtils.writeStringToFile(new File(dir, "library.yaml"), library.toString(), StandardCharsets.UTF_8);
+
+        try {
+            final OpenAPI[] result = new OpenAPI[1];
+            final Throwable[] error = new Throwable[1];
+            Thread thread = new Thread(null, () -> {
+                try {
+                    ParseOptions options = new ParseOptions();
+                    options.setResolve(true);
+                    result[0] = new OpenAPIV3Parser().read(new File(dir, "main.yaml").getAbsolutePath(), null, options);
+                } catch (Throwable t) {
+                    error[0] = t;
+                }
+            }, "small-stack", 256 * 1024);
+            thread.start();
+            thread.join();
+
+            assertNull(error[0]);
+            Map<String, Schema> schemas = result[0].getComponents().getSchemas();
+            for (int i = 0; i + 1 < count; i++) {
+                assertEquals(((Schema) schemas.get("E" + i).getProperties().get("next")).get$ref(), "#/components/schemas/E" + (i + 1));
+            }
+        } finally {
+            FileUtils.deleteDirectory(dir);
+        }
+    }
+
     public String replacePort(String url){
         String pathFile = url.replace("${dynamicPort}", String.valueOf(this.serverPort));
         return pathFile;
@@ -32,8 +32,12 @@ import io.swagger.v3.oas.models.responses.ApiResponse;
 import io.swagger.v3.oas.models.security.SecurityScheme;
 import io.swagger.v3.parser.OpenAPIV3Parser;
 import io.swagger.v3.parser.core.models.AuthorizationValue;
+import io.swagger.v3.parser.core.models.DocumentCache;
+import io.swagger.v3.parser.core.models.CancellationToken;
+import io.swagger.v3.parser.core.models.ParseBudget;
 import io.swagger.v3.parser.core.models.ParseOptions;
 import io.swagger.v3.parser.core.models.SwaggerParseResult;
+import io.swagger.v3.parser.util.OpenAPIPublisher;
 import mockit.Injectable;
 import org.apache.commons.io.FileUtils;
 import org.testng.Assert;
@@ -48,6 +52,12 @@ import java.math.BigDecimal;
 import java.net.HttpURLConnection;
 import java.nio.charset.StandardCharsets;
 import java.util.*;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static com.github.tomakehurst.wiremock.client.WireMock.*;
 import static org.testng.Assert.*;
@@ -121,6 +131,16 @@ public class OpenAPIV3ParserTest {
 
     }
 
+    @Test
+    public void testExternalComponentMessages() {
+        ParseOptions options = new ParseOptions();
+        options.setResolve(true);
+        SwaggerParseResult result = new OpenAPIV3Parser().readLocation("external-component-messages/main.yaml", null, options);
+
+        assertNotNull(result.getOpenAPI());
+        assertTrue(result.getMessages().contains("attribute ./components.yaml#/components/schemas/Pet.unexpectedAttribute is unexpected"), result.getMessages().toString());
+    }
+
     @Test
     public void testIssue837() {
         ParseOptions options = new ParseOptions();
@@ -186,6 +206,223 @@ public class OpenAPIV3ParserTest {
 
     }
 
+    @Test
+    public void testSharedDocumentCache() {
+        DocumentCache documentCache = new DocumentCache();
+        ParseOptions options = new ParseOptions();
+        options.setResolve(true);
+        options.setDocumentCache(documentCache);
+
+        final OpenAPI first = new OpenAPIV3Parser().readLocation("oapi-reference-test/index.yaml", null, options).getOpenAPI();
+        Assert.assertEquals(documentCache.getHitCount(), 0);
+        Assert.assertTrue(documentCache.size() > 0);
+        long misses = documentCache.getMissCount();
+
+        final OpenAPI second = new OpenAPIV3Parser().readLocation("oapi-reference-test/index.yaml", null, options).getOpenAPI();
+        Assert.assertEquals(documentCache.getMissCount(), misses);
+        Assert.assertTrue(documentCache.getHitCount() > 0);
+        Assert.assertEquals(second, first);
+    }
+
+    @Test
+    public void testPrefetchExternalRefs() {
+        ParseOptions options = new ParseOptions();
+        options.setResolve(true);
+        final OpenAPI expected = new OpenAPIV3Parser().readLocation("issue-837-853/main.yaml", null, options).getOpenAPI();
+
+        options.setPrefetchThreads(4);
+        final OpenAPI openAPI = new OpenAPIV3Parser().readLocation("issue-837-853/main.yaml", null, options).getOpenAPI();
+
+        Assert.assertNotNull(openAPI);
+        Assert.assertEquals(openAPI, expected);
+    }
+
+    @Test
+    public void testParseBudget() {
+        ParseBudget budget = new ParseBudget();
+        budget.setMaxNodeCount(1000);
+        budget.setMaxNestingDepth(20);
+        ParseOptions options = new ParseOptions();
+        options.setResolve(true);
+        options.setBudget(budget);
+        SwaggerParseResult result = new OpenAPIV3Parser().readLocation("internal-references-in-external-files/main.yaml", null, options);
+        Assert.assertNotNull(result.getOpenAPI());
+
+        budget.setMaxNodeCount(10);
+        result = new OpenAPIV3Parser().readLocation("internal-references-in-external-files/main.yaml", null, options);
+        Assert.assertNull(result.getOpenAPI());
+        Assert.assertEquals(result.getMessages().size(), 1);
+        Assert.assertTrue(result.getMessages().get(0).contains("maxNodeCount is 10"));
+
+        budget.setMaxNodeCount(0);
+        budget.setMaxExternalBytes(10);
+        result = new OpenAPIV3Parser().readLocation("internal-references-in-external-files/main.yaml", null, options);
+        Assert.assertNull(result.getOpenAPI());
+        Assert.assertTrue(result.getMessages().get(0).contains("maxExternalBytes is 10"));
+
+        // the prefetch reports the exceeded budget instead of leaving it to resolution
+        options.setPrefetchThreads(2);
+        result = new OpenAPIV3Parser().readLocation("internal-references-in-external-files/main.yaml", null, options);
+        Assert.assertNull(result.getOpenAPI());
+        Assert.assertTrue(result.getMessages().get(0).contains("maxExternalBytes is 10"));
+        options.setPrefetchThreads(0);
+
+        budget.setMaxExternalBytes(0);
+        budget.setMaxNestingDepth(2);
+        result = new OpenAPIV3Parser().readContents("openapi: 3.0.0\ninfo:\n  title: nested\n  version: 1.0.0\n  contact:\n    name: nested\npaths: {}\n", null, options);
+        Assert.assertNull(result.getOpenAPI());
+        Assert.assertTrue(result.getMessages().get(0).contains("maxNestingDepth is 2"));
+    }
+
+    @Test
+    public void testParseBudgetOfExternalDocuments() throws Exception {
+        StringBuilder library = new StringBuilder("openapi: 3.0.1\ninfo:\n  title: library\n  version: '1'\npaths: {}\ncomponents:\n  schemas:\n    Big:\n      type: object\n      properties:\n");
+        for (int i = 0; i < 200; i++) {
+            library.append("        p").append(i).append(":\n          type: string\n");
+        }
+        String main = "openapi: 3.0.1\ninfo:\n  title: main\n  version: '1'\npaths: {}\ncomponents:\n  schemas:\n    Main:\n      $ref: './library.yaml#/components/schemas/Big'\n";
+        File dir = java.nio.file.Files.createTempDirectory("external-budget").toFile();
+        FileUtils.writeStringToFile(new File(dir, "main.yaml"), main, StandardCharsets.UTF_8);
+        FileUtils.writeStringToFile(new File(dir, "library.yaml"), library.toString(), StandardCharsets.UTF_8);
+        WireMock.stubFor(get(urlPathMatching("/budget/main.yaml"))
+                .willReturn(aResponse().withStatus(HttpURLConnection.HTTP_OK).withBody(main)));
+        WireMock.stubFor(get(urlPathMatching("/budget/library.yaml"))
+                .willReturn(aResponse().withStatus(HttpURLConnection.HTTP_OK).withBody(library.toString())));
+
+        try {
+            ParseBudget budget = new ParseBudget();
+            DocumentCache documentCache = new DocumentCache();
+            ParseOptions options = new ParseOptions();
+            options.setResolve(true);
+            options.setBudget(budget);
+            options.setDocumentCache(documentCache);
+            String location = new File(dir, "main.yaml").getAbsolutePath();
+
+            // the nodes of an external document are counted before its tree is built
+            budget.setMaxNodeCount(100);
+            SwaggerParseResult result = new OpenAPIV3Parser().readLocation(location, null, options);
+            Assert.assertNull(result.getOpenAPI());
+            Assert.assertTrue(result.getMessages().get(0).contains("maxNodeCount is 100"));
+            Assert.assertTrue(result.getMessages().get(0).contains("library.yaml"));
+            Assert.assertEquals(documentCache.size(), 0);
+
+            // a local external document is checked by its size before it is read
+            budget.setMaxNodeCount(0);
+            budget.setMaxInputBytes(main.length() + 10);
+            result = new OpenAPIV3Parser().readLocation(location, null, options);
+            Assert.assertNull(result.getOpenAPI());
+            Assert.assertTrue(result.getMessages().get(0).contains("maxInputBytes is " + (main.length() + 10)));
+            Assert.assertEquals(documentCache.size(), 0);
+
+            // a remote one stops being read once it goes over what is left of the external bytes
+            budget.setMaxInputBytes(0);
+            budget.setMaxExternalBytes(1000);
+            result = new OpenAPIV3Parser().readLocation("http://localhost:" + this.serverPort + "/budget/main.yaml", null, options);
+            Assert.assertNull(result.getOpenAPI());
+            Assert.assertTrue(result.getMessages().get(0).contains("maxExternalBytes is 1000 but reached 1001"));
+            Assert.assertEquals(documentCache.size(), 0);
+
+            budget.setMaxExternalBytes(0);
+            result = new OpenAPIV3Parser().readLocation(location, null, options);
+            Assert.assertNotNull(result.getOpenAPI());
+            Assert.assertEquals(documentCache.size(), 1);
+        } finally {
+            FileUtils.deleteDirectory(dir);
+        }
+    }
+
+    @Test
+    public void testValidateOnlyBudgetAndCancellation() {
+        String spec = "openapi: 3.0.0\ninfo:\n  title: nested\n  version: 1.0.0\n  contact:\n    name: nested\npaths: {}\n";
+        WireMock.stubFor(get(urlPathMatching("/validate/openapi.yaml"))
+                .willReturn(aResponse().withStatus(HttpURLConnection.HTTP_OK).withBody(spec)));
+        String remote = "http://localhost:" + this.serverPort + "/validate/openapi.yaml";
+        String local = "internal-references-in-external-files/main.yaml";
+
+        ParseBudget budget = new ParseBudget();
+        ParseOptions options = new ParseOptions();
+        options.setValidateOnly(true);
+        options.setBudget(budget);
+        Assert.assertTrue(new OpenAPIV3Parser().readLocation(remote, null, options).getMessages().isEmpty());
+        Assert.assertTrue(new OpenAPIV3Parser().readLocation(local, null, options).getMessages().isEmpty());
+
+        budget.setMaxNestingDepth(2);
+        Assert.assertTrue(new OpenAPIV3Parser().readContents(spec, null, options).getMessages().get(0).contains("maxNestingDepth is 2"));
+        Assert.assertTrue(new OpenAPIV3Parser().readLocation(remote, null, options).getMessages().get(0).contains("maxNestingDepth is 2"));
+
+        budget.setMaxNestingDepth(0);
+        budget.setMaxNodeCount(10);
+        Assert.assertTrue(new OpenAPIV3Parser().readLocation(local, null, options).getMessages().get(0).contains("maxNodeCount is 10"));
+
+        budget.setMaxNodeCount(0);
+        budget.setMaxInputBytes(20);
+        Assert.assertTrue(new OpenAPIV3Parser().readLocation(remote, null, options).getMessages().get(0).contains("maxInputBytes is 20"));
+        Assert.assertTrue(new OpenAPIV3Parser().readLocation(local, null, options).getMessages().get(0).contains("maxInputBytes is 20"));
+
+        budget.setMaxInputBytes(0);
+        CancellationToken token = new CancellationToken();
+        token.cancel();
+        options.setCancellationToken(token);
+        Assert.assertEquals(new OpenAPIV3Parser().readContents(spec, null, options).getMessages(), Arrays.asList("parse cancelled"));
+        Assert.assertEquals(new OpenAPIV3Parser().readLocation(remote, null, options).getMessages(), Arrays.asList("parse cancelled"));
+    }
+
+    @Test
+    public void testCancellationToken() {
+        CancellationToken token = new CancellationToken();
+        ParseOptions options = new ParseOptions();
+        options.setResolveFully(true);
+        options.setCancellationToken(token);
+        SwaggerParseResult result = new OpenAPIV3Parser().readLocation("internal-references-in-external-files/main.yaml", null, options);
+        Assert.assertNotNull(result.getOpenAPI());
+
+        token.cancel();
+        result = new OpenAPIV3Parser().readLocation("internal-references-in-external-files/main.yaml", null, options);
+        Assert.assertNull(result.getOpenAPI());
+        Assert.assertEquals(result.getMessages(), Arrays.asList("parse cancelled"));
+
+        options.setCancellationToken(CancellationToken.withTimeout(0, TimeUnit.MILLISECONDS));
+        result = new OpenAPIV3Parser().readLocation("internal-references-in-external-files/main.yaml", null, options);
+        Assert.assertNull(result.getOpenAPI());
+        Assert.assertEquals(result.getMessages(), Arrays.asList("parse deadline exceeded"));
+    }
+
+    @Test
+    public void testCancellationTokenDuringRemoteRead() throws Exception {
+        WireMock.stubFor(get(urlPathMatching("/slow/openapi.yaml"))
+                .willReturn(aResponse()
+                        .withStatus(HttpURLConnection.HTTP_OK)
+                        .withHeader("Content-type", "application/yaml")
+                        .withBody("openapi: 3.0.0\ninfo:\n  title: slow\n  version: 1.0.0\npaths: {}\n")
+                        .withFixedDelay(10000)));
+        String location = "http://localhost:" + this.serverPort + "/slow/openapi.yaml";
+
+        // an already cancelled token stops the parse before anything is read
+        CancellationToken cancelled = new CancellationToken();
+        cancelled.cancel();
+        ParseOptions options = new ParseOptions();
+        options.setCancellationToken(cancelled);
+        SwaggerParseResult result = new OpenAPIV3Parser().readLocation(location, null, options);
+        Assert.assertNull(result.getOpenAPI());
+        Assert.assertEquals(result.getMessages(), Arrays.asList("parse cancelled"));
+        WireMock.verify(0, getRequestedFor(urlPathMatching("/slow/openapi.yaml")));
+
+        // cancelling from another thread disconnects the pending read
+        final CancellationToken token = new CancellationToken();
+        options.setCancellationToken(token);
+        ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+        try {
+            scheduler.schedule(token::cancel, 500, TimeUnit.MILLISECONDS);
+            long start = System.nanoTime();
+            result = new OpenAPIV3Parser().readLocation(location, null, options);
+            Assert.assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) < 5000);
+        } finally {
+            scheduler.shutdownNow();
+        }
+        Assert.assertNull(result.getOpenAPI());
+        Assert.assertEquals(result.getMessages(), Arrays.asList("parse cancelled"));
+    }
+
     @Test
     public void testIssue719() {
         final OpenAPI openAPI = new OpenAPIV3Parser().readLocation("extensions-responses.yaml", null, new ParseOptions()).getOpenAPI();
@@ -548,6 +785,152 @@ public class OpenAPIV3ParserTest {
 
     }
 
+    @Test
+    public void testPublishLocation() throws Exception {
+        ParseOptions options = new ParseOptions();
+        options.setResolve(true);
+        OpenAPIPublisher publisher = new OpenAPIV3Parser().publishLocation("src/test/resources/composedSchemaRef.yaml", null, options);
+
+        final List<OpenAPIPublisher.Element> elements = new ArrayList<>();
+        final CountDownLatch done = new CountDownLatch(1);
+        publisher.subscribe(new OpenAPIPublisher.Subscriber<OpenAPIPublisher.Element>() {
+            private OpenAPIPublisher.Subscription subscription;
+
+            @Override
+            public void onSubscribe(OpenAPIPublisher.Subscription subscription) {
+                this.subscription = subscription;
+                subscription.request(1);
+            }
+
+            @Override
+            public void onNext(OpenAPIPublisher.Element item) {
+                elements.add(item);
+                subscription.request(1);
+            }
+
+            @Override
+            public void onError(Throwable throwable) {
+                done.countDown();
+            }
+
+            @Override
+            public void onComplete() {
+                done.countDown();
+            }
+        });
+        Assert.assertTrue(done.await(30, TimeUnit.SECONDS));
+
+        Set<String> paths = new HashSet<>();
+        Set<String> schemas = new HashSet<>();
+        for (OpenAPIPublisher.Element element : elements) {
+            if (element.getType() == OpenAPIPublisher.Element.Type.PATH) {
+                paths.add(element.getName());
+            } else if (element.getType() == OpenAPIPublisher.Element.Type.SCHEMA) {
+                schemas.add(element.getName());
+            }
+        }
+        Assert.assertEquals(paths, new HashSet<>(Arrays.asList("/oneOf", "/anyOf", "/path")));
+        Assert.assertTrue(schemas.containsAll(Arrays.asList("Cat", "Dog", "Lion", "Bear")));
+    }
+
+    @Test
+    public void testPublishLocationStopsWhenOnNextThrows() throws Exception {
+        StringBuilder spec = new StringBuilder("openapi: 3.0.1\ninfo:\n  title: many paths\n  version: '1'\npaths:\n");
+        for (int i = 0; i < 100; i++) {
+            spec.append("  /p").append(i).append(":\n    get:\n      responses:\n        '200':\n          description: ok\n");
+        }
+        File file = File.createTempFile("many-paths", ".yaml");
+        FileUtils.writeStringToFile(file, spec.toString(), StandardCharsets.UTF_8);
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            final AtomicInteger received = new AtomicInteger();
+            final AtomicInteger signals = new AtomicInteger();
+            OpenAPIPublisher publisher = new OpenAPIV3Parser().publishLocation(file.getAbsolutePath(), null, new ParseOptions(), executor);
+            publisher.subscribe(new OpenAPIPublisher.Subscriber<OpenAPIPublisher.Element>() {
+                @Override
+                public void onSubscribe(OpenAPIPublisher.Subscription subscription) {
+                    subscription.request(Long.MAX_VALUE);
+                }
+
+                @Override
+                public void onNext(OpenAPIPublisher.Element item) {
+                    received.incrementAndGet();
+                    throw new IllegalStateException("consumer failed");
+                }
+
+                @Override
+                public void onError(Throwable throwable) {
+                    signals.incrementAndGet();
+                }
+
+                @Override
+                public void onComplete() {
+                    signals.incrementAndGet();
+                }
+            });
+
+            // both the producer and the delivery stop, instead of waiting for a consumer that is gone
+            executor.shutdown();
+            Assert.assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+            Assert.assertEquals(received.get(), 1);
+            Assert.assertEquals(signals.get(), 0);
+        } finally {
+            executor.shutdownNow();
+            file.delete();
+        }
+    }
+
+    @Test
+    public void testPublishLocationMessages() throws Exception {
+        String spec = "openapi: 3.0.1\ninfo:\n  title: messages\n  version: '1'\n  foo: bar\npaths:\n" +
+                "  /valid:\n    get:\n      responses:\n        '200':\n          description: ok\n" +
+                "  /invalid:\n    get:\n      bar: baz\n      responses:\n        '200':\n          description: ok\n";
+        File file = File.createTempFile("messages", ".yaml");
+        FileUtils.writeStringToFile(file, spec, StandardCharsets.UTF_8);
+        try {
+            final Map<String, List<String>> pathMessages = new HashMap<>();
+            final List<String> messages = new ArrayList<>();
+            final CountDownLatch done = new CountDownLatch(1);
+            new OpenAPIV3Parser().publishLocation(file.getAbsolutePath(), null, new ParseOptions()).subscribe(new OpenAPIPublisher.Subscriber<OpenAPIPublisher.Element>() {
+                private OpenAPIPublisher.Subscription subscription;
+
+                @Override
+                public void onSubscribe(OpenAPIPublisher.Subscription subscription) {
+                    this.subscription = subscription;
+                    subscription.request(1);
+                }
+
+                @Override
+                public void onNext(OpenAPIPublisher.Element item) {
+                    pathMessages.put(item.getName(), item.getMessages());
+                    subscription.request(1);
+                }
+
+                @Override
+                public void onError(Throwable throwable) {
+                    done.countDown();
+                }
+
+                @Override
+                public void onComplete() {
+                    messages.addAll(subscription.getMessages());
+                    done.countDown();
+                }
+            });
+            Assert.assertTrue(done.await(30, TimeUnit.SECONDS));
+
+            Assert.assertEquals(pathMessages.get("/valid"), Collections.emptyList());
+            Assert.assertEquals(pathMessages.get("/invalid"), Arrays.asList("attribute paths.'/invalid'(get).bar is unexpected"));
+            // the same messages as a full parse
+            List<String> expected = new OpenAPIV3Parser().readLocation(file.getAbsolutePath(), null, new ParseOptions()).getMessages();
+            Assert.assertEquals(new HashSet<>(messages), new HashSet<>(expected));
+            Assert.assertEquals(messages.size(), 2);
+        } finally {
+            file.delete();
+        }
+    }
+
     @Test
     public void testComposedSchemaAdjacent(@Injectable final List<AuthorizationValue> auths) throws Exception {
         ParseOptions options = new ParseOptions();
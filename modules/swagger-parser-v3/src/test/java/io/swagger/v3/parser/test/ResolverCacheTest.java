@@ -3,8 +3,18 @@ package io.swagger.v3.parser.test;
 import static org.testng.Assert.assertEquals;
 import static org.testng.Assert.assertNotNull;
 import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
 
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
 
 import io.swagger.v3.oas.models.Components;
@@ -155,6 +165,116 @@ public class ResolverCacheTest {
         assertNull(response.getContent());
     }
 
+    @Test
+    public void testLoadExternalRefsIntoSameFile() throws Exception {
+        final RefFormat format = RefFormat.URL;
+        final String ref = "http://my.company.com/path/to/main.yaml";
+        final String contentsOfExternalFile = "openapi: 3.0.0\n" +
+          "\n" +
+          "components:\n" +
+          "  responses:\n" +
+          "    200:\n" +
+          "      description: Success\n" +
+          "    404:\n" +
+          "      description: Not found\n";
+
+        new Expectations() {{
+            RefUtils.readExternalUrlRef(ref, format, auths, "http://my.company.com/path/parent.json");
+            times = 1;
+            result = contentsOfExternalFile;
+        }};
+
+        ResolverCache cache = new ResolverCache(openAPI, auths, "http://my.company.com/path/parent.json");
+
+        ApiResponse success = cache.loadRef(ref + "#/components/responses/200", RefFormat.URL, ApiResponse.class);
+        ApiResponse notFound = cache.loadRef(ref + "#/components/responses/404", RefFormat.URL, ApiResponse.class);
+        assertEquals(success.getDescription(), "Success");
+        assertEquals(notFound.getDescription(), "Not found");
+
+        try {
+            cache.loadRef(ref + "#/components/responses/500", RefFormat.URL, ApiResponse.class);
+            fail("missing pointer should not resolve");
+        } catch (RuntimeException e) {
+            assertEquals(e.getMessage(), "Could not find components/responses/500 in contents of " + ref);
+        }
+    }
+
+    @Test
+    public void testMemoryBudgetDropsParsedDocuments() throws Exception {
+        final RefFormat format = RefFormat.URL;
+        final String first = "http://my.company.com/path/to/first.yaml";
+        final String second = "http://my.company.com/path/to/second.yaml";
+        final String contents = "components:\n" +
+          "  responses:\n" +
+          "    200:\n" +
+          "      description: Success\n";
+
+        new Expectations() {{
+            RefUtils.readExternalUrlRef(first, format, auths, "http://my.company.com/path/parent.json");
+            times = 1;
+            result = contents;
+
+            RefUtils.readExternalUrlRef(second, format, auths, "http://my.company.com/path/parent.json");
+            times = 1;
+            result = contents;
+        }};
+
+        ResolverCache cache = new ResolverCache(openAPI, auths, "http://my.company.com/path/parent.json");
+        cache.setMemoryBudget(contents.length());
+
+        cache.loadRef(first + "#/components/responses/200", format, ApiResponse.class);
+        assertEquals(cache.getRetainedBytes(), contents.length());
+        assertEquals(cache.getDroppedDocumentCount(), 0);
+
+        // the first document is parsed already, so it goes once the second one exceeds the budget
+        ApiResponse response = cache.loadRef(second + "#/components/responses/200", format, ApiResponse.class);
+        assertEquals(response.getDescription(), "Success");
+        assertEquals(cache.getRetainedBytes(), contents.length());
+        assertEquals(cache.getDroppedDocumentCount(), 1);
+        assertNull(cache.getExternalFileCache().get(first));
+        assertEquals(cache.getExternalFileCache().get(second), contents);
+    }
+
+    @Test
+    public void testConcurrentLoadsOfSameRef() throws Exception {
+        final RefFormat format = RefFormat.URL;
+        final String ref = "http://my.company.com/path/to/main.yaml";
+        final String contentsOfExternalFile = "openapi: 3.0.0\n" +
+          "\n" +
+          "components:\n" +
+          "  responses:\n" +
+          "    200:\n" +
+          "      description: Success\n";
+
+        new Expectations() {{
+            RefUtils.readExternalUrlRef(ref, format, auths, "http://my.company.com/path/parent.json");
+            times = 1;
+            result = contentsOfExternalFile;
+        }};
+
+        final ResolverCache cache = new ResolverCache(openAPI, auths, "http://my.company.com/path/parent.json");
+        final CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<ApiResponse>> futures = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    return cache.loadRef(ref + "#/components/responses/200", RefFormat.URL, ApiResponse.class);
+                }));
+            }
+            start.countDown();
+
+            ApiResponse first = futures.get(0).get(10, TimeUnit.SECONDS);
+            assertEquals(first.getDescription(), "Success");
+            for (Future<ApiResponse> future : futures) {
+                assertTrue(future.get(10, TimeUnit.SECONDS) == first);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
     @Test
     public void testLoadInternalParameterRef(@Injectable Parameter mockedParameter) throws Exception {
         OpenAPI openAPI = new OpenAPI();
@@ -242,6 +362,48 @@ public class ResolverCacheTest {
         assertEquals(cache.getRenamedRef("foo"), "bar");
     }
 
+    @Test
+    public void testFreeComponentNames() throws Exception {
+        ResolverCache cache = new ResolverCache(openAPI, auths, null);
+        Map<String, Schema> schemas = new HashMap<>();
+        schemas.put("Pet", new Schema());
+        schemas.put("Pet_3", new Schema());
+
+        assertEquals(cache.getFreeComponentName("schemas", "Pet", schemas), "Pet_2");
+        schemas.put("Pet_2", new Schema());
+        assertEquals(cache.getFreeComponentName("schemas", "Pet", schemas), "Pet_4");
+        assertEquals(cache.getFreeComponentName("responses", "Pet", new HashMap<String, Schema>()), "Pet_2");
+    }
+
+    @Test
+    public void testImportedComponentNames() throws Exception {
+        // many documents define a different Pet; each import is looked up among those made before
+        final int count = 5000;
+        ResolverCache cache = new ResolverCache(openAPI, auths, null);
+        Map<String, Schema> schemas = new HashMap<>();
+        schemas.put("Pet", pet(-1));
+
+        List<String> names = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            assertNull(cache.getImportedComponentName("schemas", "Pet", pet(i), schemas));
+            String name = cache.getFreeComponentName("schemas", "Pet", schemas);
+            schemas.put(name, pet(i));
+            names.add(name);
+        }
+        // a component with the same shape but a different description is not the same
+        assertNull(cache.getImportedComponentName("schemas", "Pet", pet(0).description("other"), schemas));
+        for (int i = 0; i < count; i += 97) {
+            assertEquals(cache.getImportedComponentName("schemas", "Pet", pet(i), schemas), names.get(i));
+        }
+        assertNull(cache.getImportedComponentName("schemas", "Other", pet(0), schemas));
+    }
+
+    private static Schema pet(int i) {
+        return new Schema().type("object").description("pet " + i)
+                .addProperties("name", new Schema().type("string"))
+                .addProperties("owner", new Schema().$ref("#/components/schemas/Owner" + i));
+    }
+
     private Pair<JsonNode, JsonNode> constructJsonTree(String... properties) {
         JsonNodeFactory factory = new JsonNodeFactory(true);
         final ObjectNode parent = factory.objectNode();
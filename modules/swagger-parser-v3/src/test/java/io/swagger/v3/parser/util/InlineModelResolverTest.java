@@ -21,8 +21,10 @@ import io.swagger.v3.parser.core.models.ParseOptions;
 import org.testng.annotations.Test;
 
 
+import java.math.BigDecimal;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
@@ -1218,4 +1220,72 @@ public class InlineModelResolverTest {
         ObjectSchema op = (ObjectSchema) inlineProp;
         assertNull(op.getProperties());
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testIdenticalInlineModelsShareAName() {
+        OpenAPI openAPI = new OpenAPI();
+        openAPI.setComponents(new Components());
+        openAPI.getComponents().setSchemas(new LinkedHashMap<>());
+
+        openAPI.getComponents().addSchemas("A", new Schema().addProperties("home", address("street")));
+        openAPI.getComponents().addSchemas("B", new Schema().addProperties("work", address("street")));
+        openAPI.getComponents().addSchemas("C", new Schema().addProperties("other", address("zip")));
+        openAPI.getComponents().addSchemas("D", new Schema().addProperties("another", address("city")));
+
+        InlineModelResolver resolver = new InlineModelResolver();
+        resolver.flatten(openAPI);
+
+        Map<String, Schema> schemas = openAPI.getComponents().getSchemas();
+        assertEquals("#/components/schemas/Address", ((Schema) schemas.get("A").getProperties().get("home")).get$ref());
+        assertEquals("#/components/schemas/Address", ((Schema) schemas.get("B").getProperties().get("work")).get$ref());
+        assertEquals("#/components/schemas/Address_1", ((Schema) schemas.get("C").getProperties().get("other")).get$ref());
+        assertEquals("#/components/schemas/Address_2", ((Schema) schemas.get("D").getProperties().get("another")).get$ref());
+        assertNotNull(schemas.get("Address_2").getProperties().get("city"));
+
+        assertEquals("Address_3", resolver.uniqueName("Addr/ess"));
+    }
+
+    @Test
+    public void testGeneratedModelMatchesAsItWasAdded() {
+        InlineModelResolver resolver = new InlineModelResolver();
+        Schema added = new Schema().type("object").addProperties("home", address("street"));
+        resolver.addGenerated("Person", added);
+
+        // flattened further after it was added
+        added.getProperties().put("home", new Schema().$ref("Address"));
+
+        assertEquals("Person", resolver.matchGenerated(new Schema().type("object").addProperties("home", address("street"))));
+        assertNull(resolver.matchGenerated(new Schema().type("object").addProperties("home", new Schema().$ref("Address"))));
+        assertNull(resolver.matchGenerated(new Schema().type("object").addProperties("home", address("zip"))));
+        // only the JSON counts, not the class of the schema
+        assertEquals("Person", resolver.matchGenerated(new ObjectSchema().addProperties("home", address("street"))));
+    }
+
+    @Test
+    public void testGeneratedModelMatchesByValue() {
+        InlineModelResolver resolver = new InlineModelResolver();
+        Schema nested = new Schema().type("object").addProperties("amount", new Schema().type("number").minimum(new BigDecimal("1.0")));
+        resolver.addGenerated("Price", new Schema().type("object").addProperties("price", nested).addRequiredItem("price"));
+
+        Schema same = new ObjectSchema().addProperties("price", new Schema().type("object")
+                .addProperties("amount", new Schema().type("number").minimum(new BigDecimal("1.0"))));
+        same.addRequiredItem("price");
+        assertEquals("Price", resolver.matchGenerated(same));
+        // the same schema instance, hashed once, is matched within any model holding it
+        assertEquals("Price", resolver.matchGenerated(new Schema().type("object").addProperties("price", nested).addRequiredItem("price")));
+
+        // the scale of decimal values counts, as it did in the JSON
+        Schema scaled = new Schema().type("object").addProperties("price", new Schema().type("object")
+                .addProperties("amount", new Schema().type("number").minimum(new BigDecimal("1.00"))));
+        scaled.addRequiredItem("price");
+        assertNull(resolver.matchGenerated(scaled));
+        assertNull(resolver.matchGenerated(new Schema().type("object").addProperties("price", nested)));
+    }
+
+    private static Schema address(String property) {
+        ObjectSchema address = new ObjectSchema();
+        address.setTitle("Address");
+        address.addProperties(property, new StringSchema());
+        return address;
+    }
+}
@@ -395,6 +395,52 @@ public class OpenAPIDeserializerTest {
         assertEquals(result.getOpenAPI().getComponents().getResponses().get("foo").getExtensions().get("x-foo").toString(), "bar");
     }
 
+    @Test
+    public void testValidateOnlyMatchesFullParse() {
+        String yaml = "openapi: 3.0.0\n" +
+                "servers: []\n" +
+                "info:\n" +
+                "  version: ''\n" +
+                "  title: ''\n" +
+                "  bad: value\n" +
+                "paths:\n" +
+                "  /pets/{petId}:\n" +
+                "    foo: bar\n" +
+                "    get:\n" +
+                "      operationId: getPet\n" +
+                "      responses:\n" +
+                "        '200':\n" +
+                "          description: ok\n" +
+                "  /pets:\n" +
+                "    get:\n" +
+                "      operationId: getPet\n" +
+                "      responses:\n" +
+                "        '200':\n" +
+                "          description: ok\n" +
+                "components:\n" +
+                "  responses:\n" +
+                "    foo:\n" +
+                "      description: description\n" +
+                "      bar: baz\n" +
+                "  schemas:\n" +
+                "    'Bad Name':\n" +
+                "      type: string\n" +
+                "  unknown: {}\n";
+
+        OpenAPIV3Parser parser = new OpenAPIV3Parser();
+        SwaggerParseResult full = parser.readContents(yaml, null, null);
+
+        ParseOptions options = new ParseOptions();
+        options.setValidateOnly(true);
+        SwaggerParseResult validated = parser.readContents(yaml, null, options);
+
+        Assert.assertNull(validated.getOpenAPI());
+        assertEquals(new HashSet<>(validated.getMessages()), new HashSet<>(full.getMessages()));
+        assertEquals(validated.getMessages().size(), full.getMessages().size());
+        assertTrue(validated.getMessages().contains("attribute paths.'/pets'(get).operationId is repeated"));
+        assertTrue(validated.getMessages().contains("attribute components.unknown is unexpected"));
+    }
+
     @Test
     public void testLicense () {
         String yaml = "openapi: 3.0.0\n" +
@@ -0,0 +1,76 @@
+package io.swagger.v3.parser.util;
+
+import io.swagger.v3.oas.models.Components;
+import io.swagger.v3.oas.models.OpenAPI;
+import io.swagger.v3.oas.models.Operation;
+import io.swagger.v3.oas.models.PathItem;
+import io.swagger.v3.oas.models.callbacks.Callback;
+import io.swagger.v3.oas.models.headers.Header;
+import io.swagger.v3.oas.models.media.Content;
+import io.swagger.v3.oas.models.media.MediaType;
+import io.swagger.v3.oas.models.media.ArraySchema;
+import io.swagger.v3.oas.models.media.ObjectSchema;
+import io.swagger.v3.oas.models.media.Schema;
+import io.swagger.v3.oas.models.parameters.Parameter;
+import io.swagger.v3.oas.models.responses.ApiResponse;
+import io.swagger.v3.oas.models.responses.ApiResponses;
+import org.testng.annotations.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+public class RefGraphTest {
+
+    @Test
+    public void testCyclesAndResolutionOrder() {
+        OpenAPI openAPI = new OpenAPI().components(new Components()
+                .addSchemas("Order", new ObjectSchema().addProperties("customer", new Schema().$ref("#/components/schemas/Customer")))
+                .addSchemas("Customer", new ObjectSchema().addProperties("orders", new ArraySchema().items(new Schema().$ref("#/components/schemas/Order"))))
+                .addSchemas("Invoice", new ObjectSchema().addProperties("order", new Schema().$ref("#/components/schemas/Order")))
+                .addSchemas("Node", new ObjectSchema().addProperties("next", new Schema().$ref("#/components/schemas/Node")))
+                .addSchemas("Address", new ObjectSchema().addProperties("country", new Schema().$ref("./common.yaml#/components/schemas/Country"))));
+
+        RefGraph graph = RefGraph.build(openAPI);
+
+        assertEquals(graph.getCyclicNodes(), new HashSet<>(Arrays.asList(
+                "#/components/schemas/Order", "#/components/schemas/Customer", "#/components/schemas/Node")));
+        assertFalse(graph.isCyclic("#/components/schemas/Invoice"));
+        assertTrue(graph.isCyclic("#/components/schemas/Node"));
+
+        List<String> order = graph.getResolutionOrder();
+        assertTrue(order.indexOf("#/components/schemas/Order") < order.indexOf("#/components/schemas/Invoice"));
+        assertTrue(order.indexOf("./common.yaml#/components/schemas/Country") < order.indexOf("#/components/schemas/Address"));
+        assertEquals(graph.getDocuments(), new HashSet<>(Arrays.asList("./common.yaml")));
+    }
+
+    @Test
+    public void testRefsAreCollectedFromTheModel() {
+        // a schema that contains itself, as full resolution can leave it
+        Schema tree = new ObjectSchema();
+        tree.addProperties("children", new ArraySchema().items(tree));
+        tree.addProperties("owner", new Schema().$ref("#/components/schemas/User"));
+
+        Operation hook = new Operation().responses(new ApiResponses().addApiResponse("200", new ApiResponse()
+                .$ref("#/components/responses/Ok")));
+        Operation operation = new Operation()
+                .addParametersItem(new Parameter().$ref("#/components/parameters/Page"))
+                .responses(new ApiResponses().addApiResponse("200", new ApiResponse()
+                        .addHeaderObject("X-Rate", new Header().schema(new Schema().$ref("#/components/schemas/Rate")))
+                        .content(new Content().addMediaType("application/json", new MediaType().schema(tree)))))
+                .callbacks(Collections.singletonMap("onEvent", new Callback().addPathItem("{$url}", new PathItem().post(hook))));
+        OpenAPI openAPI = new OpenAPI().path("/trees", new PathItem().get(operation));
+
+        RefGraph graph = RefGraph.build(openAPI);
+
+        assertEquals(graph.getReferences(RefGraph.pathNode("/trees")), new HashSet<>(Arrays.asList(
+                "#/components/parameters/Page", "#/components/schemas/Rate", "#/components/schemas/User",
+                "#/components/responses/Ok")));
+        assertFalse(graph.isCyclic(RefGraph.pathNode("/trees")));
+    }
+}
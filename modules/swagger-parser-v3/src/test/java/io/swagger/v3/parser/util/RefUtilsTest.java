@@ -3,6 +3,7 @@ package io.swagger.v3.parser.util;
 
 import io.swagger.v3.oas.models.media.Schema;
 import io.swagger.v3.parser.core.models.AuthorizationValue;
+import io.swagger.v3.parser.models.Ref;
 import io.swagger.v3.parser.models.RefFormat;
 import io.swagger.v3.parser.processors.ExternalRefProcessor;
 import mockit.Injectable;
@@ -67,6 +68,25 @@ public class RefUtilsTest {
         doComputeDefinitionNameTestCase("./path/to/file#/foo/bar/hello", "hello");
     }
 
+    @Test
+    public void testParsedRefIsInterned() throws Exception {
+        final String ref = "./path/to/file.yaml#/components/schemas/Pet";
+        final Ref parsed = Ref.of(ref);
+
+        assertTrue(parsed == Ref.of(new String(ref)));
+        assertEquals(parsed.getFile(), "./path/to/file.yaml");
+        assertEquals(parsed.getDefinitionPath(), "components/schemas/Pet");
+        assertEquals(parsed.getPointerTokens().size(), 3);
+        assertEquals(parsed.getDefinitionName(), "Pet");
+        assertEquals(parsed.getFormat(), RefFormat.RELATIVE);
+        assertTrue(parsed.isExternal());
+
+        final Ref internal = Ref.of("#/components/schemas/Pet");
+        assertEquals(internal.getFile(), "");
+        assertEquals(internal.getFormat(), RefFormat.INTERNAL);
+        assertFalse(internal.isExternal());
+    }
+
     private void doComputeDefinitionNameTestCase(String ref, String expectedDefinitionName) {
         assertEquals(expectedDefinitionName, RefUtils.computeDefinitionName(ref));
     }
@@ -81,6 +101,20 @@ public class RefUtilsTest {
         return definitionMap;
     }
 
+    @Test
+    public void testRefsInUseStayInterned() throws Exception {
+        final String ref = "./hot.yaml#/components/schemas/Hot";
+        final Ref hot = Ref.of(ref);
+        // far more distinct refs than the table holds, while the hot one keeps being used
+        for (int i = 0; i < 100000; i++) {
+            Ref.of("./cold.yaml#/components/schemas/Cold" + i);
+            if (i % 100 == 0) {
+                assertTrue(hot == Ref.of(ref));
+            }
+        }
+        assertTrue(hot == Ref.of(ref));
+    }
+
     @Test
     public void testIsAnExternalRefFormat() throws Exception {
         final RefFormat[] values = RefFormat.values();
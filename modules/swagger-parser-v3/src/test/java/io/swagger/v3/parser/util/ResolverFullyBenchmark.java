@@ -0,0 +1,113 @@
+package io.swagger.v3.parser.util;
+
+import io.swagger.v3.oas.models.OpenAPI;
+import io.swagger.v3.parser.OpenAPIV3Parser;
+import io.swagger.v3.parser.core.models.ParseOptions;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures how {@link ResolverFully} scales with the parallelism of its pool, on a generated document.
+ *
+ * Run with {@code java -cp <test classpath> io.swagger.v3.parser.util.ResolverFullyBenchmark [paths] [schemas]}.
+ * Every run resolves a freshly read copy of the document; only {@code resolveFully} itself is timed.
+ */
+public class ResolverFullyBenchmark {
+
+    private static final int[] PARALLELISM = {1, 2, 4, 8, 16, 32};
+    private static final int WARMUP_RUNS = 3;
+    private static final int MEASURED_RUNS = 5;
+
+    public static void main(String[] args) {
+        int paths = args.length > 0 ? Integer.parseInt(args[0]) : 2000;
+        int schemas = args.length > 1 ? Integer.parseInt(args[1]) : 500;
+        String spec = generateSpec(paths, schemas, false);
+
+        System.out.println(paths + " paths, " + schemas + " schemas, " + Runtime.getRuntime().availableProcessors() + " processors");
+        long serial = measure(spec, 0);
+        System.out.println(String.format("serial      %8.1f ms", serial / 1e6));
+        for (int parallelism : PARALLELISM) {
+            long time = measure(spec, parallelism);
+            System.out.println(String.format("parallel %2d %8.1f ms  speedup %.2f", parallelism, time / 1e6, (double) serial / time));
+        }
+    }
+
+    private static long measure(String spec, int parallelism) {
+        ForkJoinPool pool = parallelism > 0 ? new ForkJoinPool(parallelism) : null;
+        try {
+            long best = Long.MAX_VALUE;
+            for (int run = 0; run < WARMUP_RUNS + MEASURED_RUNS; run++) {
+                OpenAPI openAPI = read(spec);
+                ResolverFully resolverFully = new ResolverFully();
+                resolverFully.setForkJoinPool(pool);
+                long start = System.nanoTime();
+                resolverFully.resolveFully(openAPI);
+                long time = System.nanoTime() - start;
+                if (run >= WARMUP_RUNS) {
+                    best = Math.min(best, time);
+                }
+            }
+            return best;
+        } finally {
+            if (pool != null) {
+                pool.shutdown();
+                try {
+                    pool.awaitTermination(10, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }
+    }
+
+    static OpenAPI read(String spec) {
+        ParseOptions options = new ParseOptions();
+        options.setResolve(true);
+        return new OpenAPIV3Parser().readContents(spec, null, options).getOpenAPI();
+    }
+
+    /**
+     * A document whose paths each take an inline body and return a component schema. Schema {@code S<i>}
+     * references {@code S<i/2>}; if {@code cyclic} is set, a few paths also reach a pair of schemas that
+     * reference each other.
+     */
+    static String generateSpec(int paths, int schemas, boolean cyclic) {
+        StringBuilder spec = new StringBuilder("openapi: 3.0.1\ninfo:\n  title: generated\n  version: '1'\npaths:\n");
+        for (int i = 0; i < paths; i++) {
+            String response = cyclic && i % 50 == 0 ? "Node" : "S" + (i % schemas);
+            spec.append("  /p").append(i).append(":\n")
+                    .append("    post:\n")
+                    .append("      parameters:\n")
+                    .append("        - $ref: '#/components/parameters/Page'\n")
+                    .append("      requestBody:\n")
+                    .append("        content:\n")
+                    .append("          application/json:\n")
+                    .append("            schema:\n")
+                    .append("              type: object\n")
+                    .append("              properties:\n")
+                    .append("                id:\n")
+                    .append("                  type: integer\n")
+                    .append("                item:\n")
+                    .append("                  $ref: '#/components/schemas/S").append((i * 7) % schemas).append("'\n")
+                    .append("      responses:\n")
+                    .append("        '200':\n")
+                    .append("          description: ok\n")
+                    .append("          content:\n")
+                    .append("            application/json:\n")
+                    .append("              schema:\n")
+                    .append("                $ref: '#/components/schemas/").append(response).append("'\n");
+        }
+        spec.append("components:\n  parameters:\n    Page:\n      name: page\n      in: query\n      schema:\n        type: integer\n");
+        spec.append("  schemas:\n");
+        for (int i = 0; i < schemas; i++) {
+            spec.append("    S").append(i).append(":\n      type: object\n      properties:\n        name:\n          type: string\n");
+            if (i > 0) {
+                spec.append("        parent:\n          $ref: '#/components/schemas/S").append(i / 2).append("'\n");
+            }
+        }
+        spec.append("    Node:\n      type: object\n      properties:\n        edges:\n          type: array\n          items:\n            $ref: '#/components/schemas/Edge'\n");
+        spec.append("    Edge:\n      type: object\n      properties:\n        target:\n          $ref: '#/components/schemas/Node'\n");
+        return spec.toString();
+    }
+}
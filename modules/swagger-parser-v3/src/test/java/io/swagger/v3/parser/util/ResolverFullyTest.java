@@ -0,0 +1,159 @@
+package io.swagger.v3.parser.util;
+
+import io.swagger.v3.core.util.Json;
+import io.swagger.v3.oas.models.OpenAPI;
+import io.swagger.v3.oas.models.Operation;
+import io.swagger.v3.oas.models.PathItem;
+import io.swagger.v3.oas.models.media.Schema;
+import io.swagger.v3.parser.core.models.CancellationToken;
+import io.swagger.v3.parser.core.models.ParseCancelledException;
+import org.testng.annotations.Test;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNotNull;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertSame;
+import static org.testng.Assert.fail;
+
+public class ResolverFullyTest {
+
+    @Test
+    public void testParallelResolveFullyMatchesSerial() throws Exception {
+        String spec = ResolverFullyBenchmark.generateSpec(400, 60, true);
+
+        OpenAPI serial = ResolverFullyBenchmark.read(spec);
+        new ResolverFully().resolveFully(serial);
+
+        OpenAPI parallel = ResolverFullyBenchmark.read(spec);
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            ResolverFully resolverFully = new ResolverFully();
+            resolverFully.setForkJoinPool(pool);
+            resolverFully.resolveFully(parallel);
+        } finally {
+            pool.shutdown();
+        }
+
+        assertEquals(Json.mapper().writeValueAsString(parallel), Json.mapper().writeValueAsString(serial));
+
+        // schemas are still resolved once and shared
+        Schema first = parallel.getPaths().get("/p1").getPost().getResponses().get("200").getContent().get("application/json").getSchema();
+        Schema second = parallel.getPaths().get("/p61").getPost().getResponses().get("200").getContent().get("application/json").getSchema();
+        assertSame(second, first);
+    }
+
+    @Test
+    public void testParallelResolveFullyStopsWorkersWhenCallingThreadFails() throws Exception {
+        assertWorkersStopped(false);
+    }
+
+    @Test
+    public void testParallelResolveFullyStopsWorkersWhenWorkerFails() throws Exception {
+        assertWorkersStopped(true);
+    }
+
+    /**
+     * Fails the parallel resolution on a worker or on the calling thread, once the workers have checked the
+     * token a few times, and checks that no worker goes on resolving after resolveFully has thrown.
+     */
+    private void assertWorkersStopped(boolean failOnWorker) throws Exception {
+        final AtomicInteger workerChecks = new AtomicInteger();
+        CancellationToken token = new CancellationToken() {
+            @Override
+            public void throwIfCancelled() {
+                boolean worker = Thread.currentThread() instanceof ForkJoinWorkerThread;
+                int checks = worker ? workerChecks.incrementAndGet() : workerChecks.get();
+                // a single worker fails, the calling thread fails on every check
+                if (worker == failOnWorker && (worker ? checks == 20 : checks >= 20)) {
+                    throw new ParseCancelledException("parse cancelled");
+                }
+                // slow enough for the workers to be busy when the failure happens
+                sleep(worker ? 1 : 5);
+            }
+        };
+        OpenAPI openAPI = ResolverFullyBenchmark.read(ResolverFullyBenchmark.generateSpec(400, 60, true));
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            ResolverFully resolverFully = new ResolverFully();
+            resolverFully.setForkJoinPool(pool);
+            resolverFully.setCancellationToken(token);
+            try {
+                resolverFully.resolveFully(openAPI);
+                fail("resolution should have been cancelled");
+            } catch (ParseCancelledException e) {
+                // expected
+            }
+            int checks = workerChecks.get();
+            sleep(50);
+            assertEquals(workerChecks.get(), checks);
+        } finally {
+            pool.shutdownNow();
+            pool.awaitTermination(10, TimeUnit.SECONDS);
+        }
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Test
+    public void testResolvedViewResolvesOnFirstAccess() throws Exception {
+        String spec = ResolverFullyBenchmark.generateSpec(20, 10, false);
+
+        OpenAPI eager = ResolverFullyBenchmark.read(spec);
+        new ResolverFully().resolveFully(eager);
+
+        OpenAPI lazy = ResolverFullyBenchmark.read(spec);
+        ResolvedOpenAPIView view = new ResolvedOpenAPIView(lazy);
+        Operation operation = view.getOperation("/p3", PathItem.HttpMethod.POST);
+
+        assertEquals(Json.mapper().writeValueAsString(operation), Json.mapper().writeValueAsString(eager.getPaths().get("/p3").getPost()));
+        assertSame(view.getOperation("/p3", PathItem.HttpMethod.POST), operation);
+        assertNull(view.getOperation("/p3", PathItem.HttpMethod.GET));
+
+        // operations that were not fetched are left alone
+        Schema untouched = lazy.getPaths().get("/p4").getPost().getResponses().get("200").getContent().get("application/json").getSchema();
+        assertEquals(untouched.get$ref(), "#/components/schemas/S4");
+
+        Schema schema = view.getSchema("S3");
+        assertSame(schema, operation.getResponses().get("200").getContent().get("application/json").getSchema());
+        assertNull(((Schema) schema.getProperties().get("parent")).get$ref());
+        assertNotNull(view.getParameter("Page").getSchema());
+        assertNull(view.getSchema("Missing"));
+    }
+
+    @Test
+    public void testAggregatesEachComposedSchemaOnce() {
+        int depth = 100;
+        StringBuilder spec = new StringBuilder("openapi: 3.0.1\ninfo:\n  title: allOf\n  version: '1'\npaths:\n");
+        for (String path : new String[]{"/a", "/b"}) {
+            spec.append("  ").append(path).append(":\n    get:\n      responses:\n        '200':\n          description: ok\n")
+                    .append("          content:\n            application/json:\n              schema:\n")
+                    .append("                $ref: '#/components/schemas/L").append(depth).append("'\n");
+        }
+        spec.append("components:\n  schemas:\n    L0:\n      type: object\n      required:\n        - p0\n      properties:\n        p0:\n          type: string\n");
+        for (int i = 1; i <= depth; i++) {
+            spec.append("    L").append(i).append(":\n      allOf:\n        - $ref: '#/components/schemas/L").append(i - 1).append("'\n")
+                    .append("        - type: object\n          properties:\n            p").append(i).append(":\n              type: integer\n");
+        }
+
+        OpenAPI openAPI = ResolverFullyBenchmark.read(spec.toString());
+        new ResolverFully().resolveFully(openAPI);
+
+        Schema a = openAPI.getPaths().get("/a").getGet().getResponses().get("200").getContent().get("application/json").getSchema();
+        Schema b = openAPI.getPaths().get("/b").getGet().getResponses().get("200").getContent().get("application/json").getSchema();
+        assertSame(b, a);
+        assertEquals(a.getProperties().size(), depth + 1);
+        assertEquals(a.getRequired().size(), 1);
+        assertEquals(((Schema) a.getProperties().get("p" + depth)).getType(), "integer");
+    }
+}